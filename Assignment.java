@@ -1,10 +1,13 @@
 package org.app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Assignment class for BUP UCAM Assignment Tracker
@@ -14,20 +17,27 @@ public class Assignment {
     private String assignmentId;
     private String title;
     private String description;
+    @JsonIgnore
     private Course course;
+    @JsonIgnore
     private Teacher creator;
+    private String courseId; // Persisted in place of the course; resolved by ObjectGraphLinker
+    private String creatorId; // Persisted in place of the creator
     private AssignmentType type;
     private AssignmentStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime dueDate;
     private int maxMarks;
-    private List<Submission> submissions;
-    private List<String> attachmentPaths; // Added field for assignment attachments
+    @JsonIgnore
+    private CopyOnWriteArrayList<Submission> submissions; // Submissions are stored once, in their own map
+    private CopyOnWriteArrayList<Attachment> attachments; // Question files; content lives in the attachment store
+    @JsonIgnore
+    private List<String> legacyAttachmentPaths = new ArrayList<>();
 
     // Default constructor for Jackson
     public Assignment() {
-        this.submissions = new ArrayList<>();
-        this.attachmentPaths = new ArrayList<>(); // Initialize attachmentPaths
+        this.submissions = new CopyOnWriteArrayList<>();
+        this.attachments = new CopyOnWriteArrayList<>();
         this.createdAt = LocalDateTime.now();
         this.status = AssignmentStatus.ACTIVE;
     }
@@ -39,7 +49,9 @@ public class Assignment {
         this.title = title;
         this.description = description;
         this.course = course;
+        this.courseId = course != null ? course.getCourseId() : null;
         this.creator = creator;
+        this.creatorId = creator != null ? creator.getUserId() : null;
     }
 
     // Constructor with all fields
@@ -62,10 +74,22 @@ public class Assignment {
     public void setDescription(String description) { this.description = description; }
 
     public Course getCourse() { return course; }
-    public void setCourse(Course course) { this.course = course; }
+    public void setCourse(Course course) {
+        this.course = course;
+        this.courseId = course != null ? course.getCourseId() : null;
+    }
+
+    public String getCourseId() { return courseId; }
+    public void setCourseId(String courseId) { this.courseId = courseId; }
 
     public Teacher getCreator() { return creator; }
-    public void setCreator(Teacher creator) { this.creator = creator; }
+    public void setCreator(Teacher creator) {
+        this.creator = creator;
+        this.creatorId = creator != null ? creator.getUserId() : null;
+    }
+
+    public String getCreatorId() { return creatorId; }
+    public void setCreatorId(String creatorId) { this.creatorId = creatorId; }
 
     public AssignmentType getType() { return type; }
     public void setType(AssignmentType type) { this.type = type; }
@@ -84,40 +108,45 @@ public class Assignment {
 
     public List<Submission> getSubmissions() { return submissions; }
     public void setSubmissions(List<Submission> submissions) {
-        this.submissions = submissions != null ? submissions : new ArrayList<>();
+        this.submissions = submissions != null ? new CopyOnWriteArrayList<>(submissions) : new CopyOnWriteArrayList<>();
     }
 
     public void addSubmission(Submission submission) {
-        if (submissions == null) {
-            submissions = new ArrayList<>();
-        }
-        submissions.add(submission);
+        submissions.addIfAbsent(submission);
     }
 
     public boolean isOverdue() {
         return dueDate != null && LocalDateTime.now().isAfter(dueDate);
     }
 
-    public List<String> getAttachmentPaths() {
-        if (attachmentPaths == null) {
-            attachmentPaths = new ArrayList<>();
-        }
-        return attachmentPaths;
+    public List<Attachment> getAttachments() {
+        return attachments;
     }
 
-    public void setAttachmentPaths(List<String> attachmentPaths) {
-        this.attachmentPaths = attachmentPaths != null ? attachmentPaths : new ArrayList<>();
+    public void setAttachments(List<Attachment> attachments) {
+        this.attachments = attachments != null ? new CopyOnWriteArrayList<>(attachments) : new CopyOnWriteArrayList<>();
     }
 
-    public void addAttachmentPath(String path) {
-        if (attachmentPaths == null) {
-            attachmentPaths = new ArrayList<>();
-        }
-        if (path != null && !path.isEmpty() && !attachmentPaths.contains(path)) {
-            attachmentPaths.add(path);
+    public void addAttachment(Attachment attachment) {
+        if (attachment != null) {
+            attachments.addIfAbsent(attachment);
         }
     }
 
+    /**
+     * Local file paths saved by older versions, before attachments were stored
+     * Read-only in JSON; AssignmentService moves them into the store on load
+     */
+    @JsonProperty(value = "attachmentPaths", access = JsonProperty.Access.WRITE_ONLY)
+    public void setLegacyAttachmentPaths(List<String> paths) {
+        this.legacyAttachmentPaths = paths != null ? new ArrayList<>(paths) : new ArrayList<>();
+    }
+
+    @JsonIgnore
+    public List<String> getLegacyAttachmentPaths() {
+        return legacyAttachmentPaths;
+    }
+
     public void displayAssignmentInfo() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
         System.out.println("Assignment: " + title);
@@ -127,11 +156,11 @@ public class Assignment {
         System.out.println("Due Date: " + (dueDate != null ? dueDate.format(formatter) : "N/A"));
         System.out.println("Max Marks: " + maxMarks);
         System.out.println("Submissions: " + getSubmissionCount());
-        System.out.println("Attachments: " + attachmentPaths.size());
-        if (!attachmentPaths.isEmpty()) {
+        System.out.println("Attachments: " + attachments.size());
+        if (!attachments.isEmpty()) {
             System.out.println("Attached Files:");
-            for (String path : attachmentPaths) {
-                System.out.println("  - " + new java.io.File(path).getName());
+            for (Attachment attachment : attachments) {
+                System.out.println("  - " + attachment.getFileName());
             }
         }
     }
@@ -1,9 +1,21 @@
 package org.app.service;
 
 import org.app.model.*;
+import org.app.util.AttachmentInspector;
+import org.app.util.AttachmentStore;
 import org.app.util.DataPersistence;
+import org.app.util.DeferredSave;
+import org.app.util.EmailUtil;
+import org.app.util.StripedLocks;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -12,34 +24,237 @@ import java.util.stream.Collectors;
 public class AssignmentService {
     private Map<String, Assignment> assignments;
     private Map<String, Submission> submissions;
-    private int assignmentCounter;
-    private int submissionCounter;
+    private final Map<String, Assignment> quarantinedAssignments = new ConcurrentHashMap<>();
+    private final Map<String, Submission> quarantinedSubmissions = new ConcurrentHashMap<>();
+    private final Map<String, LocalDateTime> quarantinedAt = new ConcurrentHashMap<>();
+    private final Duration quarantineRetention = Duration.ofDays(
+            Long.parseLong(EmailUtil.getConfig("quarantine.retention.days", "30")));
+    private final AtomicInteger assignmentCounter = new AtomicInteger(1);
+    private final AtomicInteger submissionCounter = new AtomicInteger(1);
+    private final StripedLocks courseLocks = new StripedLocks(); // Mutations are serialized per course
+    private final DeferredSave saves = new DeferredSave("assignments", this::writeData);
+    private final Map<String, CourseSnapshot> courseSnapshots = new ConcurrentHashMap<>(); // Published read views
+    private final NotificationService notificationService = NotificationService.getInstance();
+    private final DomainEventBus events = DomainEventBus.getInstance();
+    private final AttachmentStore attachmentStore = AttachmentStore.getInstance();
+    private final StorageUsage storageUsage = new StorageUsage();
+    private final AttachmentInspector inspector = AttachmentInspector.getInstance();
+    private static final int MAX_CACHED_VIEWS = 16; // Per teacher; each distinct sort/filter is one view
+    // Sorted, filtered submission lists per teacher, dropped whenever one of their submissions changes
+    private final Map<String, Map<String, List<Submission>>> submissionViews = new ConcurrentHashMap<>();
     private DataPersistence dataPersistence;
 
     public AssignmentService() {
         this.dataPersistence = new DataPersistence();
-        this.assignments = new HashMap<>();
-        this.submissions = new HashMap<>();
+        this.assignments = new ConcurrentHashMap<>();
+        this.submissions = new ConcurrentHashMap<>();
         loadData();
+        // Extracted text can change which submissions a filter matches
+        inspector.addListener(inspection -> submissionViews.clear());
         System.out.println("✓ AssignmentService initialized with persistent storage");
     }
 
     private void loadData() {
         DataPersistence.AssignmentData assignmentData = dataPersistence.loadAssignments();
         if (assignmentData.assignments != null) {
-            this.assignments = assignmentData.assignments;
+            this.assignments = new ConcurrentHashMap<>(assignmentData.assignments);
         }
         if (assignmentData.submissions != null) {
-            this.submissions = assignmentData.submissions;
+            this.submissions = new ConcurrentHashMap<>(assignmentData.submissions);
         }
-        this.assignmentCounter = assignmentData.assignmentCounter;
-        this.submissionCounter = assignmentData.submissionCounter;
+        if (assignmentData.quarantinedAssignments != null) {
+            quarantinedAssignments.putAll(assignmentData.quarantinedAssignments);
+        }
+        if (assignmentData.quarantinedSubmissions != null) {
+            quarantinedSubmissions.putAll(assignmentData.quarantinedSubmissions);
+        }
+        if (assignmentData.quarantinedAt != null) {
+            quarantinedAt.putAll(assignmentData.quarantinedAt);
+        }
+        LocalDateTime now = LocalDateTime.now(); // Quarantined before times were kept; retention starts now
+        quarantinedAssignments.keySet().forEach(id -> quarantinedAt.putIfAbsent(id, now));
+        quarantinedSubmissions.keySet().forEach(id -> quarantinedAt.putIfAbsent(id, now));
+        this.assignmentCounter.set(assignmentData.assignmentCounter);
+        this.submissionCounter.set(assignmentData.submissionCounter);
+        buildSnapshots();
         System.out.println("✓ Loaded " + assignments.size() + " assignments and " +
                 submissions.size() + " submissions from storage");
+        if (migrateLegacyAttachments()) {
+            saveData();
+        }
+        buildStorageUsage(); // After the migration, so migrated files are counted too
+        List<Attachment> stored = new ArrayList<>();
+        assignments.values().forEach(assignment -> stored.addAll(assignment.getAttachments()));
+        submissions.values().forEach(submission -> stored.addAll(submission.getAttachments()));
+        inspector.inspectMissing(stored);
+    }
+
+    /**
+     * Move attachments saved as local paths by older versions into the attachment store
+     * Files that no longer exist cannot be recovered and are dropped
+     */
+    private boolean migrateLegacyAttachments() {
+        int migrated = 0;
+        int missing = 0;
+        for (Assignment assignment : assignments.values()) {
+            for (String path : assignment.getLegacyAttachmentPaths()) {
+                Attachment attachment = migrateLegacyAttachment(path);
+                if (attachment != null) {
+                    assignment.addAttachment(attachment);
+                    migrated++;
+                } else {
+                    missing++;
+                }
+            }
+            assignment.getLegacyAttachmentPaths().clear();
+        }
+        for (Submission submission : submissions.values()) {
+            for (String path : submission.getLegacyAttachmentPaths()) {
+                Attachment attachment = migrateLegacyAttachment(path);
+                if (attachment != null) {
+                    submission.addAttachment(attachment);
+                    migrated++;
+                } else {
+                    missing++;
+                }
+            }
+            submission.getLegacyAttachmentPaths().clear();
+        }
+        if (migrated + missing > 0) {
+            System.out.println("✓ Moved " + migrated + " attachment(s) into the attachment store" +
+                    (missing > 0 ? " (" + missing + " missing file(s) dropped)" : ""));
+        }
+        return migrated + missing > 0;
+    }
+
+    private Attachment migrateLegacyAttachment(String path) {
+        File file = path != null ? new File(path) : null;
+        if (file == null || !file.isFile()) {
+            System.err.println("✗ Attachment file not found: " + path);
+            return null;
+        }
+        try {
+            return attachmentStore.store(file.toPath());
+        } catch (IOException e) {
+            System.err.println("✗ Could not store attachment " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Copy files into the attachment store; done before any lock is taken
+     */
+    private List<Attachment> storeAttachments(List<File> files) {
+        List<Attachment> stored = new ArrayList<>(files.size());
+        for (File file : files) {
+            try {
+                stored.add(attachmentStore.store(file.toPath()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not store attachment " + file.getName() + ": " + e.getMessage(), e);
+            }
+        }
+        return stored;
+    }
+
+    private void checkStored(List<Attachment> attachments) {
+        for (Attachment attachment : attachments) {
+            if (!attachmentStore.contains(attachment)) {
+                throw new IllegalArgumentException("Attachment " + attachment.getFileName() + " has not been uploaded");
+            }
+        }
+    }
+
+    /**
+     * Total the attachment bytes of the loaded data; from here on submits keep the totals current
+     */
+    private void buildStorageUsage() {
+        for (Assignment assignment : assignments.values()) {
+            storageUsage.add(null, assignment.getCourseId(), assignment.getAssignmentId(),
+                    totalSize(assignment.getAttachments()));
+        }
+        for (Submission submission : submissions.values()) {
+            storageUsage.add(submission.getStudentUserId(), courseIdOf(submission.getAssignmentId()),
+                    submission.getAssignmentId(), totalSize(submission.getAttachments()));
+        }
+    }
+
+    /**
+     * Course of a live or quarantined assignment, or null if there is neither
+     */
+    private String courseIdOf(String assignmentId) {
+        if (assignmentId == null) {
+            return null;
+        }
+        Assignment assignment = assignments.get(assignmentId);
+        if (assignment == null) {
+            assignment = quarantinedAssignments.get(assignmentId);
+        }
+        return assignment != null ? assignment.getCourseId() : null;
+    }
+
+    private static long totalSize(List<Attachment> attachments) {
+        long total = 0;
+        for (Attachment attachment : attachments) {
+            total += attachment.getSize();
+        }
+        return total;
+    }
+
+    /**
+     * Build the initial read snapshot for every course from the loaded data
+     */
+    private void buildSnapshots() {
+        for (Assignment assignment : assignments.values()) {
+            if (assignment.getCourseId() != null) {
+                publishSnapshot(assignment.getCourseId(), s -> s.withAssignment(assignment));
+            }
+        }
+        for (Submission submission : submissions.values()) {
+            Assignment assignment = assignments.get(submission.getAssignmentId());
+            if (assignment != null && assignment.getCourseId() != null) {
+                publishSnapshot(assignment.getCourseId(), s -> s.withSubmission(submission));
+            }
+        }
+    }
+
+    /**
+     * Replace a course's snapshot with an updated copy
+     * compute() is atomic per key, so updates to one course never race
+     */
+    private void publishSnapshot(String courseId, UnaryOperator<CourseSnapshot> update) {
+        courseSnapshots.compute(courseId, (id, current) ->
+                update.apply(current != null ? current : CourseSnapshot.empty(id)));
+    }
+
+    /**
+     * Defer saves until endBatch(), so bulk changes rewrite the file once
+     */
+    public void beginBatch() {
+        saves.begin();
+    }
+
+    public void endBatch() {
+        saves.end();
     }
 
     private void saveData() {
-        dataPersistence.saveAssignments(assignments, submissions, assignmentCounter, submissionCounter);
+        saves.request();
+    }
+
+    private void writeData() {
+        // Only runs on the DeferredSave writer thread, so writes never overlap
+        dataPersistence.saveAssignments(assignments, copiesForSave(submissions), quarantinedAssignments,
+                copiesForSave(quarantinedSubmissions), quarantinedAt, assignmentCounter.get(),
+                submissionCounter.get());
+    }
+
+    /**
+     * Copy each submission under its own lock, so a grade being applied is never saved half done
+     */
+    private static Map<String, Submission> copiesForSave(Map<String, Submission> submissions) {
+        Map<String, Submission> copies = new HashMap<>(submissions.size() * 4 / 3 + 1);
+        submissions.forEach((submissionId, submission) -> copies.put(submissionId, submission.copyForSave()));
+        return copies;
     }
 
     /**
@@ -48,15 +263,50 @@ public class AssignmentService {
     public Assignment createAssignment(String title, String description, Course course,
                                        Teacher creator, AssignmentType type, int maxMarks,
                                        LocalDateTime dueDate) {
-        String assignmentId = "ASSIGN-" + String.format("%04d", assignmentCounter++);
+        return createAssignment(title, description, course, creator, type, maxMarks, dueDate,
+                Collections.emptyList());
+    }
+
+    /**
+     * Create a new assignment with question files
+     * The files are copied into the attachment store before the assignment exists
+     */
+    public Assignment createAssignment(String title, String description, Course course,
+                                       Teacher creator, AssignmentType type, int maxMarks,
+                                       LocalDateTime dueDate, List<File> files) {
+        return createAssignmentWithAttachments(title, description, course, creator, type, maxMarks, dueDate,
+                storeAttachments(files));
+    }
+
+    /**
+     * Create a new assignment with question files that are already in the attachment store,
+     * e.g. finished chunked uploads
+     */
+    public Assignment createAssignmentWithAttachments(String title, String description, Course course,
+                                                      Teacher creator, AssignmentType type, int maxMarks,
+                                                      LocalDateTime dueDate, List<Attachment> stored) {
+        checkStored(stored);
+        String assignmentId = "ASSIGN-" + String.format("%04d", assignmentCounter.getAndIncrement());
         Assignment assignment = new Assignment(assignmentId, title, description, course,
                 creator, type, dueDate, maxMarks);
-
-        assignments.put(assignmentId, assignment);
-        course.addAssignment(assignment);
-        creator.addAssignment(assignment);
+        assignment.setAttachments(stored);
+
+        ReentrantLock lock = courseLocks.lockFor(course.getCourseId());
+        lock.lock();
+        try {
+            assignments.put(assignmentId, assignment);
+            storageUsage.add(null, course.getCourseId(), assignmentId, totalSize(stored));
+            course.addAssignment(assignment);
+            creator.addAssignment(assignment);
+            publishSnapshot(course.getCourseId(), s -> s.withAssignment(assignment));
+        } finally {
+            lock.unlock();
+        }
 
         saveData(); // Save after creating assignment
+        notificationService.assignmentPosted(assignment);
+        events.publish(new DomainEvent.AssignmentCreated(assignment));
+        stored.forEach(inspector::inspect); // Queued; runs after this returns
         System.out.println("✓ Assignment created successfully: " + title);
         return assignment;
     }
@@ -65,26 +315,106 @@ public class AssignmentService {
      * Submit assignment by student
      */
     public Submission submitAssignment(Assignment assignment, Student student, String content) {
-        if (assignment.getStatus() != AssignmentStatus.ACTIVE) {
-            throw new IllegalStateException("Assignment is not active for submissions");
-        }
+        return submitAssignment(assignment, student, content, Collections.emptyList());
+    }
 
-        String submissionId = "SUB-" + String.format("%04d", submissionCounter++);
-        Submission submission = new Submission(submissionId, assignment, student, content);
+    /**
+     * Submit assignment with files
+     * The files are copied into the attachment store first, so the saved
+     * submission never points at a file that can later move or vanish.
+     * Submits over quota are turned away before anything is copied.
+     */
+    public Submission submitAssignment(Assignment assignment, Student student, String content, List<File> files) {
+        long bytes = 0;
+        for (File file : files) {
+            bytes += file.length();
+        }
+        storageUsage.checkRoom(student.getUserId(), assignment.getCourse().getCourseId(), bytes);
+        return submitAssignmentWithAttachments(assignment, student, content, storeAttachments(files));
+    }
 
-        submissions.put(submissionId, submission);
-        assignment.addSubmission(submission);
-        student.addSubmission(submission);
+    /**
+     * Submit an assignment with files that are already in the attachment store,
+     * e.g. finished chunked uploads
+     */
+    public Submission submitAssignmentWithAttachments(Assignment assignment, Student student, String content,
+                                                      List<Attachment> stored) {
+        checkStored(stored);
+        Submission submission;
+        ReentrantLock lock = courseLocks.lockFor(assignment.getCourse().getCourseId());
+        lock.lock();
+        try {
+            // Checked under the lock so a concurrent close cannot slip in between
+            if (assignment.getStatus() != AssignmentStatus.ACTIVE) {
+                throw new IllegalStateException("Assignment is not active for submissions");
+            }
+            storageUsage.charge(student.getUserId(), assignment.getCourse().getCourseId(),
+                    assignment.getAssignmentId(), totalSize(stored));
+
+            String submissionId = "SUB-" + String.format("%04d", submissionCounter.getAndIncrement());
+            submission = new Submission(submissionId, assignment, student, content);
+            submission.setAttachments(stored);
+
+            submissions.put(submissionId, submission);
+            assignment.addSubmission(submission);
+            student.addSubmission(submission);
+            Submission created = submission;
+            publishSnapshot(assignment.getCourse().getCourseId(), s -> s.withSubmission(created));
+            invalidateSubmissionViews(assignment);
+        } finally {
+            lock.unlock();
+        }
 
         saveData(); // Save after submission
+        events.publish(new DomainEvent.SubmissionCreated(submission));
+        stored.forEach(inspector::inspect); // Queued; runs after this returns
         System.out.println("✓ Assignment submitted successfully by " + student.getName());
         return submission;
     }
 
     /**
-     * Grade a submission
+     * Grade a submission, overwriting whatever grade it has now
+     * @deprecated a grade given concurrently is silently replaced; read the submission's
+     * version and call the overload taking expectedVersion instead
      */
+    @Deprecated
     public void gradeSubmission(String submissionId, int marks, String feedback, Teacher teacher) {
+        while (!gradeSubmission(submissionId, marks, feedback, teacher,
+                findGradableSubmission(submissionId, marks).getVersion())) {
+            Thread.onSpinWait(); // Lost to a concurrent grade; take its version and go again
+        }
+    }
+
+    /**
+     * Grade a submission only if it is still at expectedVersion
+     * Version 0 means it has never been graded. Returns false when another grader
+     * got there first; reload the submission and retry
+     */
+    public boolean gradeSubmission(String submissionId, int marks, String feedback, Teacher teacher,
+                                   long expectedVersion) {
+        Submission submission = findGradableSubmission(submissionId, marks);
+        String courseId = submission.getAssignment().getCourse().getCourseId();
+        ReentrantLock lock = courseLocks.lockFor(courseId);
+        lock.lock();
+        try {
+            if (!submission.gradeIfVersion(expectedVersion, marks, feedback, teacher)) {
+                System.out.println("✗ Grading conflict on " + submissionId + ": expected version " +
+                        expectedVersion + " but found " + submission.getVersion());
+                return false;
+            }
+            publishSnapshot(courseId, CourseSnapshot::touched);
+            invalidateSubmissionViews(submission.getAssignment());
+        } finally {
+            lock.unlock();
+        }
+        saveData(); // Save after grading
+        notificationService.submissionGraded(submission);
+        events.publish(new DomainEvent.SubmissionGraded(submission));
+        System.out.println("✓ Submission graded successfully");
+        return true;
+    }
+
+    private Submission findGradableSubmission(String submissionId, int marks) {
         Submission submission = submissions.get(submissionId);
         if (submission == null) {
             throw new IllegalArgumentException("Submission not found");
@@ -93,10 +423,7 @@ public class AssignmentService {
         if (marks > submission.getAssignment().getMaxMarks()) {
             throw new IllegalArgumentException("Marks cannot exceed maximum marks");
         }
-
-        submission.grade(marks, feedback, teacher);
-        saveData(); // Save after grading
-        System.out.println("✓ Submission graded successfully");
+        return submission;
     }
 
     /**
@@ -104,7 +431,7 @@ public class AssignmentService {
      */
     public List<Assignment> getAssignmentsByCourse(Course course) {
         return assignments.values().stream()
-                .filter(assignment -> assignment.getCourse().equals(course))
+                .filter(assignment -> course.equals(assignment.getCourse()))
                 .collect(Collectors.toList());
     }
 
@@ -113,7 +440,7 @@ public class AssignmentService {
      */
     public List<Assignment> getAssignmentsByTeacher(Teacher teacher) {
         return assignments.values().stream()
-                .filter(assignment -> assignment.getCreator().equals(teacher))
+                .filter(assignment -> teacher.equals(assignment.getCreator())) // Null once the creator is deleted
                 .collect(Collectors.toList());
     }
 
@@ -122,7 +449,7 @@ public class AssignmentService {
      */
     public List<Submission> getSubmissionsForAssignment(Assignment assignment) {
         return submissions.values().stream()
-                .filter(submission -> submission.getAssignment().equals(assignment))
+                .filter(submission -> assignment.equals(submission.getAssignment()))
                 .collect(Collectors.toList());
     }
 
@@ -131,7 +458,7 @@ public class AssignmentService {
      */
     public List<Submission> getSubmissionsByStudent(Student student) {
         return submissions.values().stream()
-                .filter(submission -> submission.getStudent().equals(student))
+                .filter(submission -> student.equals(submission.getStudent()))
                 .collect(Collectors.toList());
     }
 
@@ -150,7 +477,15 @@ public class AssignmentService {
     public void closeAssignment(String assignmentId) {
         Assignment assignment = assignments.get(assignmentId);
         if (assignment != null) {
-            assignment.setStatus(AssignmentStatus.CLOSED);
+            String courseId = assignment.getCourse().getCourseId();
+            ReentrantLock lock = courseLocks.lockFor(courseId);
+            lock.lock();
+            try {
+                assignment.setStatus(AssignmentStatus.CLOSED);
+                publishSnapshot(courseId, CourseSnapshot::touched);
+            } finally {
+                lock.unlock();
+            }
             saveData(); // Save after status change
             System.out.println("✓ Assignment closed: " + assignment.getTitle());
         }
@@ -177,52 +512,160 @@ public class AssignmentService {
     }
 
     /**
-     * Restore a student's submissions based on their stored submissionIds
-     * This ensures submissions persist between sessions for students
+     * Get a view of which assignments and submissions a course has
+     * Taking a snapshot is O(1) and never blocks writers; the entities in it are live
      */
-    public void restoreStudentSubmissions(Student student) {
-        List<String> submissionIds = student.getSubmissionIds();
+    public CourseSnapshot getCourseSnapshot(Course course) {
+        String courseId = course.getCourseId();
+        return courseSnapshots.getOrDefault(courseId, CourseSnapshot.empty(courseId));
+    }
+
+    /**
+     * Get one page of the submissions to a teacher's assignments
+     * Sorting and filtering happen here rather than in the table; the sorted
+     * result is cached per query until one of the teacher's submissions
+     * changes, so paging through it only costs the page size
+     */
+    public SubmissionPage getSubmissionPage(Teacher teacher, SubmissionSort sort, boolean ascending,
+                                            String filter, int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Invalid page window: offset " + offset + ", limit " + limit);
+        }
+        String needle = filter != null ? filter.trim().toLowerCase() : "";
+        Map<String, List<Submission>> views = submissionViews.computeIfAbsent(teacher.getUserId(),
+                id -> new ConcurrentHashMap<>());
+        String key = sort + ":" + ascending + ":" + needle;
+        List<Submission> view = views.get(key);
+        if (view == null) {
+            if (views.size() >= MAX_CACHED_VIEWS) {
+                views.clear();
+            }
+            view = buildSubmissionView(teacher, sort, ascending, needle);
+            views.put(key, view);
+        }
 
-        // Clear the current list to avoid duplicates
-        student.clearSubmissions();
+        int from = Math.min(offset, view.size());
+        int to = Math.min(from + limit, view.size());
+        return new SubmissionPage(new ArrayList<>(view.subList(from, to)), from, view.size());
+    }
 
-        // For each submissionId, get the actual submission and add it to the student's submissions
-        for (String submissionId : submissionIds) {
-            Submission submission = getSubmission(submissionId);
-            if (submission != null) {
-                // Make sure the student has the submission in their list
-                student.addSubmissionDirect(submission);
+    private List<Submission> buildSubmissionView(Teacher teacher, SubmissionSort sort, boolean ascending,
+                                                 String needle) {
+        List<Submission> rows = new ArrayList<>();
+        Set<String> textMatches = needle.isEmpty() ? Collections.emptySet() : inspector.findDigests(needle);
+        for (Assignment assignment : teacher.getAssignmentsCreated()) {
+            if (assignment.getCourse() == null) {
+                continue;
+            }
+            for (Submission submission : getCourseSnapshot(assignment.getCourse())
+                    .getSubmissions(assignment.getAssignmentId())) {
+                if (needle.isEmpty() || matchesFilter(submission, needle, textMatches)) {
+                    rows.add(submission);
+                }
             }
         }
+        rows.sort(sort.comparator(ascending));
+        return Collections.unmodifiableList(rows);
+    }
 
-        System.out.println("✓ Restored " + student.getSubmissions().size() +
-                          " submissions for student " + student.getName());
+    /**
+     * Match on title, student name or status, or on words inside the submission's text attachments
+     */
+    private static boolean matchesFilter(Submission submission, String needle, Set<String> textMatches) {
+        if (submission.getAssignment().getTitle().toLowerCase().contains(needle) ||
+                submission.getStudent().getName().toLowerCase().contains(needle) ||
+                submission.getStatus().toString().toLowerCase().contains(needle)) {
+            return true;
+        }
+        for (Attachment attachment : submission.getAttachments()) {
+            if (textMatches.contains(attachment.getDigest())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void invalidateSubmissionViews(Assignment assignment) {
+        if (assignment.getCreatorId() != null) {
+            submissionViews.remove(assignment.getCreatorId());
+        }
     }
 
     /**
-     * Restore a teacher's assignments based on their stored assignmentIds
-     * This ensures assignments persist between sessions for teachers
+     * Take assignments and submissions whose course, assignment or student no longer exists out of the live data
+     * They are kept in assignments.json under the quarantine maps for the retention period, so
+     * nothing is lost to a bad reference; they just no longer appear in any view. After that
+     * expireQuarantine() deletes them and the attachment collector can reclaim their files.
      */
-    public void restoreTeacherAssignments(Teacher teacher) {
-        List<String> assignmentIds = teacher.getAssignmentIds();
+    public void quarantine(Collection<Assignment> orphanedAssignments, Collection<Submission> orphanedSubmissions) {
+        if (orphanedAssignments.isEmpty() && orphanedSubmissions.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Assignment assignment : orphanedAssignments) {
+            assignments.remove(assignment.getAssignmentId());
+            quarantinedAssignments.put(assignment.getAssignmentId(), assignment);
+            quarantinedAt.put(assignment.getAssignmentId(), now);
+            storageUsage.release(null, assignment.getCourseId(), assignment.getAssignmentId(),
+                    totalSize(assignment.getAttachments()));
+        }
+        for (Submission submission : orphanedSubmissions) {
+            submissions.remove(submission.getSubmissionId());
+            quarantinedSubmissions.put(submission.getSubmissionId(), submission);
+            quarantinedAt.put(submission.getSubmissionId(), now);
+            storageUsage.release(submission.getStudentUserId(), courseIdOf(submission.getAssignmentId()),
+                    submission.getAssignmentId(), totalSize(submission.getAttachments()));
+            if (submission.getAssignment() != null) {
+                submission.getAssignment().getSubmissions().remove(submission);
+            }
+        }
+        courseSnapshots.clear();
+        buildSnapshots();
+        submissionViews.clear();
+        saveData();
+        System.out.println("✗ Quarantined " + orphanedAssignments.size() + " assignment(s) and " +
+                orphanedSubmissions.size() + " submission(s) whose course, assignment or student no longer exists");
+    }
 
-        // Clear the current list to avoid duplicates
-        teacher.clearAssignmentsCreated();
+    /**
+     * Quarantine a deleted student's submissions now rather than on the next load
+     */
+    public void quarantineSubmissionsOf(String studentUserId) {
+        quarantine(Collections.emptyList(), submissions.values().stream()
+                .filter(submission -> studentUserId.equals(submission.getStudentUserId()))
+                .collect(Collectors.toList()));
+    }
 
-        // For each assignmentId, get the actual assignment and add it to the teacher's assignmentsCreated
-        for (String assignmentId : assignmentIds) {
-            Assignment assignment = getAssignment(assignmentId);
-            if (assignment != null) {
-                teacher.addAssignmentDirect(assignment);
-                // Make sure the assignment has this teacher as creator
-                if (!assignment.getCreator().equals(teacher)) {
-                    assignment.setCreator(teacher);
-                }
+    /**
+     * Delete quarantined work that has outlived the retention period; returns how much was deleted
+     */
+    public int expireQuarantine() {
+        LocalDateTime cutoff = getQuarantineCutoff();
+        List<String> expired = new ArrayList<>();
+        quarantinedAt.forEach((id, since) -> {
+            if (since.isBefore(cutoff)) {
+                expired.add(id);
             }
+        });
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        for (String id : expired) {
+            quarantinedAssignments.remove(id);
+            quarantinedSubmissions.remove(id);
+            quarantinedAt.remove(id);
         }
+        saveData();
+        System.out.println("✓ Deleted " + expired.size() + " quarantined assignment(s)/submission(s) older than " +
+                quarantineRetention.toDays() + " days");
+        return expired.size();
+    }
 
-        System.out.println("✓ Restored " + teacher.getAssignmentsCreated().size() +
-                          " assignments for teacher " + teacher.getName());
+    /**
+     * Quarantined work set aside before this time has expired
+     */
+    public LocalDateTime getQuarantineCutoff() {
+        return LocalDateTime.now().minus(quarantineRetention);
     }
 
     // Getters
@@ -241,4 +684,19 @@ public class AssignmentService {
     public List<Submission> getAllSubmissions() {
         return new ArrayList<>(submissions.values());
     }
+
+    public List<Assignment> getQuarantinedAssignments() {
+        return new ArrayList<>(quarantinedAssignments.values());
+    }
+
+    public List<Submission> getQuarantinedSubmissions() {
+        return new ArrayList<>(quarantinedSubmissions.values());
+    }
+
+    /**
+     * Attachment byte totals and quotas, kept current as files are submitted
+     */
+    public StorageUsage getStorageUsage() {
+        return storageUsage;
+    }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package org.app.controller;
 
 import org.app.model.*;
 import org.app.service.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -19,11 +21,35 @@ public class AssignmentTrackerController {
     private User currentUser;
 
     public AssignmentTrackerController() {
+        this(true);
+    }
+
+    /**
+     * Pass false to work on the stored data only, e.g. for batch runs
+     */
+    public AssignmentTrackerController(boolean withSampleData) {
         this.userService = new UserService();
         this.courseService = new CourseService();
         this.assignmentService = new AssignmentService();
+        ObjectGraphLinker.link(userService, courseService, assignmentService);
         this.scanner = new Scanner(System.in);
-        initializeDefaultData();
+        if (withSampleData) {
+            initializeDefaultData();
+        }
+    }
+
+    /**
+     * Run a script or JSON-lines file of operations without the menu, saving once at the end
+     */
+    public BatchCommandRunner.Report runBatch(Path script) throws IOException {
+        return new BatchCommandRunner(userService, courseService, assignmentService).run(script);
+    }
+
+    /**
+     * Enroll students from a studentId,courseCode CSV, saving once at the end
+     */
+    public RosterImporter.Report importRoster(Path csv) throws IOException {
+        return new RosterImporter(userService, courseService).importCsv(csv, null);
     }
 
     /**
@@ -349,6 +375,7 @@ public class AssignmentTrackerController {
         }
 
         Submission selectedSubmission = submissions.get(submissionChoice);
+        long expectedVersion = selectedSubmission.getVersion(); // The grade shown is the one being replaced
         selectedSubmission.displaySubmissionInfo();
 
         System.out.print("Enter marks (0-" + selectedAssignment.getMaxMarks() + "): ");
@@ -357,7 +384,10 @@ public class AssignmentTrackerController {
         String feedback = scanner.nextLine();
 
         try {
-            assignmentService.gradeSubmission(selectedSubmission.getSubmissionId(), marks, feedback, teacher);
+            if (!assignmentService.gradeSubmission(selectedSubmission.getSubmissionId(), marks, feedback, teacher,
+                    expectedVersion)) {
+                System.out.println("Someone else graded this submission meanwhile; review it and try again.");
+            }
         } catch (IllegalArgumentException e) {
             System.out.println("Error: " + e.getMessage());
         }
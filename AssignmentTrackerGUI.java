@@ -8,6 +8,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Main GUI Application for BUP UCAM Assignment Tracker
@@ -20,6 +22,8 @@ public class AssignmentTrackerGUI extends JFrame {
 
     private CardLayout cardLayout;
     private JPanel mainPanel;
+    // Dashboards already built this session, keyed by user ID, so switching back to a user is a card flip
+    private final Map<String, JPanel> dashboardCache = new HashMap<>();
 
     // Login components
     private JTextField emailField;
@@ -37,6 +41,18 @@ public class AssignmentTrackerGUI extends JFrame {
         // Initialize sample data
         initializeSampleData();
 
+        // Link the loaded entities once; the services keep the links current from here on
+        ObjectGraphLinker.link(userService, courseService, assignmentService);
+
+        // A deleted user's cached dashboard can never be shown again
+        DomainEventBus.getInstance().subscribe(batch -> {
+            for (DomainEvent event : batch) {
+                if (event instanceof DomainEvent.UserDeleted) {
+                    discardDashboard(((DomainEvent.UserDeleted) event).getUser().getUserId());
+                }
+            }
+        }, SwingUtilities::invokeLater);
+
         // Setup GUI
         setupLookAndFeel();
         initializeComponents();
@@ -206,36 +222,40 @@ public class AssignmentTrackerGUI extends JFrame {
     }
 
     private void showDashboard() {
-        if (currentUser.getRole() == UserRole.TEACHER) {
-            // Restore teacher's courses and assignments from saved IDs
-            Teacher teacher = (Teacher) currentUser;
-
-            // Restore the teacher's courses
-            courseService.restoreTeacherCourses(teacher);
-
-            // Restore the teacher's assignments
-            assignmentService.restoreTeacherAssignments(teacher);
-
-            // Now create the dashboard with the restored data
-            TeacherDashboard teacherDashboard = new TeacherDashboard(
-                    teacher, userService, courseService, assignmentService, this);
-            mainPanel.add(teacherDashboard, "TEACHER_DASHBOARD");
-            cardLayout.show(mainPanel, "TEACHER_DASHBOARD");
-        } else if (currentUser.getRole() == UserRole.STUDENT) {
-            // Restore student's enrolled courses and submissions from saved IDs
-            Student student = (Student) currentUser;
-
-            // Restore the student's course enrollments
-            courseService.restoreStudentEnrollments(student);
-
-            // Restore the student's submissions
-            assignmentService.restoreStudentSubmissions(student);
-
-            // Now create the dashboard with the restored data
-            StudentDashboard studentDashboard = new StudentDashboard(
-                    student, userService, courseService, assignmentService, this);
-            mainPanel.add(studentDashboard, "STUDENT_DASHBOARD");
-            cardLayout.show(mainPanel, "STUDENT_DASHBOARD");
+        String cardName = "DASHBOARD-" + currentUser.getUserId();
+        JPanel dashboard = dashboardCache.get(currentUser.getUserId());
+
+        if (dashboard == null) {
+            if (currentUser.getRole() == UserRole.TEACHER) {
+                dashboard = new TeacherDashboard(
+                        (Teacher) currentUser, userService, courseService, assignmentService, this);
+            } else if (currentUser.getRole() == UserRole.STUDENT) {
+                dashboard = new StudentDashboard(
+                        (Student) currentUser, userService, courseService, assignmentService, this);
+            } else {
+                return;
+            }
+            dashboardCache.put(currentUser.getUserId(), dashboard);
+            mainPanel.add(dashboard, cardName);
+        }
+        // Cached dashboards are kept current by domain events, so there is nothing to reload
+
+        cardLayout.show(mainPanel, cardName);
+    }
+
+    private void discardDashboard(String userId) {
+        JPanel dashboard = dashboardCache.remove(userId);
+        if (dashboard == null) {
+            return;
+        }
+        if (dashboard instanceof TeacherDashboard) {
+            ((TeacherDashboard) dashboard).close();
+        } else if (dashboard instanceof StudentDashboard) {
+            ((StudentDashboard) dashboard).close();
+        }
+        mainPanel.remove(dashboard);
+        if (currentUser != null && currentUser.getUserId().equals(userId)) {
+            showLogin();
         }
     }
 
@@ -0,0 +1,688 @@
+package org.app.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.app.model.*;
+import org.app.service.*;
+import org.app.util.AttachmentStore;
+import org.app.util.SessionTokens;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless JSON HTTP API for BUP UCAM Assignment Tracker
+ * Each request runs on its own virtual thread, so thousands of students
+ * can be connected at once without a large platform thread pool.
+ * POST /api/login returns a token; every other route except registration
+ * needs it as "Authorization: Bearer <token>" and acts as that user. IDs in
+ * a request body never choose who is acting: teachers may only change their
+ * own courses, and students may only submit, enroll and upload as themselves.
+ */
+public class AssignmentTrackerServer {
+    private static final int BACKLOG = 4096;
+    private static final String BEARER = "Bearer ";
+
+    private final UserService userService;
+    private final CourseService courseService;
+    private final AssignmentService assignmentService;
+    private final AttachmentStore attachmentStore = AttachmentStore.getInstance();
+    private final SessionTokens sessions;
+    private final ObjectMapper objectMapper;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public AssignmentTrackerServer(UserService userService, CourseService courseService,
+                                   AssignmentService assignmentService) {
+        this(userService, courseService, assignmentService, new SessionTokens(12 * 60 * 60_000L));
+    }
+
+    public AssignmentTrackerServer(UserService userService, CourseService courseService,
+                                   AssignmentService assignmentService, SessionTokens sessions) {
+        this.userService = userService;
+        this.courseService = courseService;
+        this.assignmentService = assignmentService;
+        this.sessions = sessions;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Start listening on the given port, reachable from this machine only
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress().getHostAddress(), port);
+    }
+
+    /**
+     * Start listening on the given address and port; "0.0.0.0" serves every interface
+     */
+    public void start(String bindAddress, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getByName(bindAddress), port), BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+        System.out.println("✓ API server listening on " + bindAddress + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * Stop accepting requests, waiting up to delaySeconds for in-flight ones
+     */
+    public void stop(int delaySeconds) {
+        if (server != null) {
+            server.stop(delaySeconds);
+            executor.shutdown();
+            System.out.println("✓ API server stopped");
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+            Object result = route(method, path, exchange);
+            if (result == null) {
+                sendError(exchange, 404, "Not found");
+            } else {
+                sendJson(exchange, 200, result);
+            }
+        } catch (UnauthorizedException e) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            sendError(exchange, 401, e.getMessage());
+        } catch (ForbiddenException e) {
+            sendError(exchange, 403, e.getMessage());
+        } catch (ConflictException e) {
+            sendError(exchange, 409, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (IllegalStateException e) {
+            sendError(exchange, 409, e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+            sendError(exchange, 500, "Internal server error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Dispatch a request; returns null when no route matches
+     */
+    private Object route(String method, String[] path, HttpExchange exchange) throws IOException {
+        String resource = path[0];
+        boolean get = "GET".equals(method);
+        boolean post = "POST".equals(method);
+        boolean put = "PUT".equals(method);
+        boolean delete = "DELETE".equals(method);
+
+        // Signing in and registering are the only routes open to anonymous callers
+        if (post && path.length == 1) {
+            switch (resource) {
+                case "login":
+                    return login(readBody(exchange));
+                case "teachers":
+                    return registerTeacher(readBody(exchange));
+                case "students":
+                    return registerStudent(readBody(exchange));
+                default:
+                    break;
+            }
+        }
+        User caller = caller(exchange);
+
+        switch (resource) {
+            case "logout":
+                if (post && path.length == 1) return logout(exchange);
+                break;
+            case "students":
+                if (get && path.length == 3 && "usage".equals(path[2])) return studentUsage(caller, path[1]);
+                break;
+            case "courses":
+                if (get && path.length == 1) return listCourses(queryParams(exchange));
+                if (post && path.length == 1) return createCourse(caller, readBody(exchange));
+                if (post && path.length == 3 && "enroll".equals(path[2])) return enroll(caller, path[1], readBody(exchange));
+                if (get && path.length == 3 && "assignments".equals(path[2])) return courseAssignments(caller, path[1]);
+                if (get && path.length == 3 && "usage".equals(path[2])) return courseUsage(caller, path[1]);
+                break;
+            case "assignments":
+                if (post && path.length == 1) return createAssignment(caller, readBody(exchange));
+                if (get && path.length == 3 && "submissions".equals(path[2])) return assignmentSubmissions(caller, path[1]);
+                if (post && path.length == 3 && "submissions".equals(path[2])) return submit(caller, path[1], readBody(exchange));
+                if (get && path.length == 3 && "usage".equals(path[2])) return assignmentUsage(caller, path[1]);
+                break;
+            case "submissions":
+                if (post && path.length == 3 && "grade".equals(path[2])) return grade(caller, path[1], readBody(exchange));
+                break;
+            case "uploads":
+                if (post && path.length == 1) return beginUpload(caller, readBody(exchange));
+                if (get && path.length == 2) return uploadStatus(caller, path[1]);
+                if (put && path.length == 2) return uploadChunk(caller, path[1], exchange);
+                if (post && path.length == 3 && "complete".equals(path[2])) return completeUpload(caller, path[1], readBody(exchange));
+                if (delete && path.length == 2) return abortUpload(caller, path[1]);
+                break;
+            default:
+                break;
+        }
+        return null;
+    }
+
+    // Handlers
+
+    private Object login(JsonNode body) {
+        User user = userService.authenticateUser(text(body, "email"), text(body, "password"));
+        if (user == null) {
+            throw new UnauthorizedException("Invalid email or password");
+        }
+        if (!user.isActive()) {
+            throw new ForbiddenException("Account is deactivated");
+        }
+        Map<String, Object> view = userView(user);
+        view.put("token", sessions.issue(user.getUserId()));
+        return view;
+    }
+
+    private Object logout(HttpExchange exchange) {
+        sessions.revoke(bearerToken(exchange));
+        return Map.of("loggedOut", true);
+    }
+
+    private Object registerTeacher(JsonNode body) {
+        Teacher teacher = userService.registerTeacher(text(body, "name"), text(body, "email"),
+                text(body, "password"), text(body, "department"), text(body, "employeeId"));
+        return userView(teacher);
+    }
+
+    private Object registerStudent(JsonNode body) {
+        Student student = userService.registerStudent(text(body, "name"), text(body, "email"),
+                text(body, "password"), text(body, "studentId"), text(body, "program"),
+                integer(body, "semester"));
+        return userView(student);
+    }
+
+    private Object listCourses(Map<String, String> query) {
+        List<Course> courses;
+        if (query.containsKey("teacherId")) {
+            courses = courseService.getCoursesByTeacher(requireTeacher(query.get("teacherId")));
+        } else if (query.containsKey("studentId")) {
+            courses = courseService.getCoursesForStudent(requireStudent(query.get("studentId")));
+        } else {
+            courses = courseService.getAllCourses();
+        }
+        List<Map<String, Object>> views = new ArrayList<>();
+        for (Course course : courses) {
+            views.add(courseView(course));
+        }
+        return views;
+    }
+
+    private Object createCourse(User caller, JsonNode body) {
+        Teacher teacher = asTeacher(caller);
+        requireSelf(caller, body, "instructorId");
+        Course course = courseService.createCourse(text(body, "courseName"), text(body, "courseCode"),
+                text(body, "department"), integer(body, "creditHours"), text(body, "semester"), teacher);
+        return courseView(course);
+    }
+
+    /**
+     * Students enroll themselves; a course's teacher may enroll any student by studentId
+     */
+    private Object enroll(User caller, String courseId, JsonNode body) {
+        Course course = requireCourse(courseId);
+        Student student;
+        if (caller instanceof Student) {
+            requireSelf(caller, body, "studentId");
+            student = (Student) caller;
+        } else {
+            requireTeaches(asTeacher(caller), course);
+            student = requireStudent(text(body, "studentId"));
+        }
+        courseService.enrollStudent(courseId, student);
+        return courseView(courseService.getCourse(courseId));
+    }
+
+    private Object courseAssignments(User caller, String courseId) {
+        Course course = requireCourse(courseId);
+        requireMember(caller, course);
+        CourseSnapshot snapshot = assignmentService.getCourseSnapshot(course);
+        List<Map<String, Object>> views = new ArrayList<>();
+        for (Assignment assignment : snapshot.getAssignments()) {
+            views.add(assignmentView(assignment));
+        }
+        return views;
+    }
+
+    private Object createAssignment(User caller, JsonNode body) throws IOException {
+        Teacher teacher = asTeacher(caller);
+        requireSelf(caller, body, "creatorId");
+        Course course = requireCourse(text(body, "courseId"));
+        requireTeaches(teacher, course);
+        AssignmentType type;
+        LocalDateTime dueDate;
+        try {
+            type = AssignmentType.valueOf(text(body, "type"));
+            dueDate = LocalDateTime.parse(text(body, "dueDate"));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid dueDate, expected yyyy-MM-ddTHH:mm");
+        }
+        Assignment assignment = assignmentService.createAssignmentWithAttachments(text(body, "title"),
+                text(body, "description"), course, teacher, type, integer(body, "maxMarks"), dueDate,
+                attachments(body));
+        return assignmentView(assignment);
+    }
+
+    private Object assignmentSubmissions(User caller, String assignmentId) {
+        Assignment assignment = requireAssignment(assignmentId);
+        requireTeaches(asTeacher(caller), assignment.getCourse());
+        CourseSnapshot snapshot = assignmentService.getCourseSnapshot(assignment.getCourse());
+        List<Map<String, Object>> views = new ArrayList<>();
+        for (Submission submission : snapshot.getSubmissions(assignmentId)) {
+            views.add(submissionView(submission));
+        }
+        return views;
+    }
+
+    private Object submit(User caller, String assignmentId, JsonNode body) throws IOException {
+        Student student = asStudent(caller);
+        requireSelf(caller, body, "studentId");
+        Assignment assignment = requireAssignment(assignmentId);
+        if (!assignment.getCourse().getEnrolledStudentIds().contains(student.getUserId())) {
+            throw new ForbiddenException("Not enrolled in " + assignment.getCourse().getCourseCode());
+        }
+        Submission submission = assignmentService.submitAssignmentWithAttachments(assignment, student,
+                text(body, "content"), attachments(body));
+        return submissionView(submission);
+    }
+
+    /**
+     * Files named in a request body, as [{"digest": ..., "fileName": ...}] from completed uploads
+     */
+    private List<Attachment> attachments(JsonNode body) throws IOException {
+        List<Attachment> attachments = new ArrayList<>();
+        for (JsonNode node : body.path("attachments")) {
+            attachments.add(attachmentStore.describe(text(node, "digest"), text(node, "fileName")));
+        }
+        return attachments;
+    }
+
+    private Object grade(User caller, String submissionId, JsonNode body) {
+        Teacher teacher = asTeacher(caller);
+        requireSelf(caller, body, "teacherId");
+        Submission target = assignmentService.getSubmission(submissionId);
+        if (target == null) {
+            throw new IllegalArgumentException("Submission not found: " + submissionId);
+        }
+        requireTeaches(teacher, target.getAssignment().getCourse());
+        int marks = integer(body, "marks");
+        String feedback = body.path("feedback").asText("");
+        // Without expectedVersion only an ungraded submission is graded; regrading needs the version
+        long expectedVersion = body.hasNonNull("expectedVersion") ? body.get("expectedVersion").asLong() : 0;
+        if (!assignmentService.gradeSubmission(submissionId, marks, feedback, teacher, expectedVersion)) {
+            throw new ConflictException(body.hasNonNull("expectedVersion")
+                    ? "Submission was graded by someone else; reload and retry"
+                    : "Submission is already graded; send its expectedVersion to regrade");
+        }
+        return submissionView(assignmentService.getSubmission(submissionId));
+    }
+
+    // Chunked uploads: begin, PUT chunks in order (resuming from "received" after an interruption), complete
+
+    private Object beginUpload(User caller, JsonNode body) throws IOException {
+        JsonNode size = body.get("size");
+        if (size == null || !size.canConvertToLong()) {
+            throw new IllegalArgumentException("Missing or invalid integer field: size");
+        }
+        String uploadId = attachmentStore.beginUpload(text(body, "fileName"), size.asLong(), caller.getUserId());
+        return uploadView(uploadId);
+    }
+
+    private Object uploadStatus(User caller, String uploadId) throws IOException {
+        requireUploadOwner(caller, uploadId);
+        return uploadView(uploadId);
+    }
+
+    /**
+     * Append the request body at ?offset=N; an X-Chunk-SHA256 header is checked if present
+     */
+    private Object uploadChunk(User caller, String uploadId, HttpExchange exchange) throws IOException {
+        requireUploadOwner(caller, uploadId);
+        String offset = queryParams(exchange).get("offset");
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        long received;
+        try (InputStream in = exchange.getRequestBody()) {
+            received = attachmentStore.appendChunk(uploadId, parseLong(offset, "offset"), in,
+                    parseLong(length, "Content-Length"), exchange.getRequestHeaders().getFirst("X-Chunk-SHA256"));
+        }
+        return Map.of("uploadId", uploadId, "received", received);
+    }
+
+    private Object completeUpload(User caller, String uploadId, JsonNode body) throws IOException {
+        requireUploadOwner(caller, uploadId);
+        String expected = body.hasNonNull("sha256") ? body.get("sha256").asText() : null;
+        Attachment attachment = attachmentStore.completeUpload(uploadId, expected);
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("digest", attachment.getDigest());
+        view.put("fileName", attachment.getFileName());
+        view.put("size", attachment.getSize());
+        return view;
+    }
+
+    private Object abortUpload(User caller, String uploadId) throws IOException {
+        requireUploadOwner(caller, uploadId);
+        attachmentStore.abortUpload(uploadId);
+        return Map.of("uploadId", uploadId, "aborted", true);
+    }
+
+    private Map<String, Object> uploadView(String uploadId) throws IOException {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("uploadId", uploadId);
+        view.put("fileName", attachmentStore.getUploadFileName(uploadId));
+        view.put("size", attachmentStore.getUploadSize(uploadId));
+        view.put("received", attachmentStore.getReceived(uploadId));
+        return view;
+    }
+
+    // Storage usage, read from running totals
+
+    /**
+     * A student's usage, for that student or a teacher of one of their courses
+     */
+    private Object studentUsage(User caller, String userId) {
+        Student student = requireStudent(userId);
+        if (!caller.getUserId().equals(userId) && !(caller instanceof Teacher && courseService
+                .getCoursesForStudent(student).stream().anyMatch(course -> teaches((Teacher) caller, course)))) {
+            throw new ForbiddenException("Not allowed to view storage of " + userId);
+        }
+        StorageUsage usage = assignmentService.getStorageUsage();
+        return usageView("studentId", student.getUserId(), usage.getStudentBytes(userId), usage.getStudentQuota());
+    }
+
+    private Object courseUsage(User caller, String courseId) {
+        Course course = requireCourse(courseId);
+        requireTeaches(asTeacher(caller), course);
+        StorageUsage usage = assignmentService.getStorageUsage();
+        return usageView("courseId", course.getCourseId(), usage.getCourseBytes(courseId), usage.getCourseQuota());
+    }
+
+    private Object assignmentUsage(User caller, String assignmentId) {
+        Assignment assignment = requireAssignment(assignmentId);
+        requireTeaches(asTeacher(caller), assignment.getCourse());
+        return usageView("assignmentId", assignment.getAssignmentId(),
+                assignmentService.getStorageUsage().getAssignmentBytes(assignmentId), 0);
+    }
+
+    private Map<String, Object> usageView(String idField, String id, long bytes, long quota) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put(idField, id);
+        view.put("bytes", bytes);
+        view.put("quotaBytes", quota > 0 ? quota : null);
+        return view;
+    }
+
+    // Who is calling, and what they may touch
+
+    /**
+     * The signed-in user behind the request's bearer token
+     */
+    private User caller(HttpExchange exchange) {
+        String userId = sessions.resolve(bearerToken(exchange));
+        User user = userId != null ? userService.getUser(userId) : null;
+        if (user == null || !user.isActive()) {
+            throw new UnauthorizedException("Sign in with POST /api/login and send the token as a Bearer header");
+        }
+        return user;
+    }
+
+    private String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith(BEARER) ? header.substring(BEARER.length()).trim() : null;
+    }
+
+    private Teacher asTeacher(User caller) {
+        if (!(caller instanceof Teacher)) {
+            throw new ForbiddenException("Only teachers may do this");
+        }
+        return (Teacher) caller;
+    }
+
+    private Student asStudent(User caller) {
+        if (!(caller instanceof Student)) {
+            throw new ForbiddenException("Only students may do this");
+        }
+        return (Student) caller;
+    }
+
+    /**
+     * Older clients still send their own ID in the body; anyone else's is refused
+     */
+    private void requireSelf(User caller, JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        if (value != null && !value.isNull() && !caller.getUserId().equals(value.asText())) {
+            throw new ForbiddenException(field + " must be the signed-in user");
+        }
+    }
+
+    private static boolean teaches(Teacher teacher, Course course) {
+        return teacher.getUserId().equals(course.getInstructorId());
+    }
+
+    private void requireTeaches(Teacher teacher, Course course) {
+        if (!teaches(teacher, course)) {
+            throw new ForbiddenException(teacher.getName() + " does not teach " + course.getCourseCode());
+        }
+    }
+
+    /**
+     * The course's teacher or one of its students
+     */
+    private void requireMember(User caller, Course course) {
+        boolean member = caller instanceof Teacher ? teaches((Teacher) caller, course)
+                : course.getEnrolledStudentIds().contains(caller.getUserId());
+        if (!member) {
+            throw new ForbiddenException("Not a member of " + course.getCourseCode());
+        }
+    }
+
+    private void requireUploadOwner(User caller, String uploadId) throws IOException {
+        if (!caller.getUserId().equals(attachmentStore.getUploadOwner(uploadId))) {
+            throw new ForbiddenException("Upload " + uploadId + " belongs to another user");
+        }
+    }
+
+    // Lookups
+
+    private Teacher requireTeacher(String userId) {
+        Teacher teacher = userService.getTeacher(userId);
+        if (teacher == null) {
+            throw new IllegalArgumentException("Teacher not found: " + userId);
+        }
+        return teacher;
+    }
+
+    private Student requireStudent(String userId) {
+        Student student = userService.getStudent(userId);
+        if (student == null) {
+            throw new IllegalArgumentException("Student not found: " + userId);
+        }
+        return student;
+    }
+
+    private Course requireCourse(String courseId) {
+        Course course = courseService.getCourse(courseId);
+        if (course == null) {
+            throw new IllegalArgumentException("Course not found: " + courseId);
+        }
+        return course;
+    }
+
+    private Assignment requireAssignment(String assignmentId) {
+        Assignment assignment = assignmentService.getAssignment(assignmentId);
+        if (assignment == null) {
+            throw new IllegalArgumentException("Assignment not found: " + assignmentId);
+        }
+        return assignment;
+    }
+
+    // JSON views, kept flat so passwords and object cycles never reach the wire
+
+    private Map<String, Object> userView(User user) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("userId", user.getUserId());
+        view.put("name", user.getName());
+        view.put("email", user.getEmail());
+        view.put("role", user.getRole());
+        view.put("emailVerified", user.isEmailVerified());
+        return view;
+    }
+
+    private Map<String, Object> courseView(Course course) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("courseId", course.getCourseId());
+        view.put("courseCode", course.getCourseCode());
+        view.put("courseName", course.getCourseName());
+        view.put("department", course.getDepartment());
+        view.put("creditHours", course.getCreditHours());
+        view.put("semester", course.getSemester());
+        view.put("instructorId", course.getInstructor() != null ? course.getInstructor().getUserId() : null);
+        view.put("enrolledStudents", course.getEnrolledStudents().size());
+        return view;
+    }
+
+    private Map<String, Object> assignmentView(Assignment assignment) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("assignmentId", assignment.getAssignmentId());
+        view.put("title", assignment.getTitle());
+        view.put("description", assignment.getDescription());
+        view.put("courseId", assignment.getCourse().getCourseId());
+        view.put("type", assignment.getType());
+        view.put("status", assignment.getStatus().name());
+        view.put("dueDate", assignment.getDueDate());
+        view.put("maxMarks", assignment.getMaxMarks());
+        view.put("submissions", assignment.getSubmissionCount());
+        return view;
+    }
+
+    private Map<String, Object> submissionView(Submission submission) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("submissionId", submission.getSubmissionId());
+        view.put("assignmentId", submission.getAssignment().getAssignmentId());
+        view.put("studentId", submission.getStudent().getUserId());
+        view.put("content", submission.getContent());
+        view.put("submittedAt", submission.getSubmittedAt());
+        view.put("status", submission.getStatus().name());
+        view.put("marks", submission.getMarks());
+        view.put("feedback", submission.getFeedback());
+        view.put("version", submission.getVersion());
+        return view;
+    }
+
+    // HTTP helpers
+
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            JsonNode node = objectMapper.readTree(in);
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+            return node;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage()); // The client's fault, so 400
+        }
+    }
+
+    private Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+        return params;
+    }
+
+    private String text(JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        if (value == null || value.isNull() || value.asText().isEmpty()) {
+            throw new IllegalArgumentException("Missing field: " + field);
+        }
+        return value.asText();
+    }
+
+    private int integer(JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        if (value == null || !value.canConvertToInt()) {
+            throw new IllegalArgumentException("Missing or invalid integer field: " + field);
+        }
+        return value.asInt();
+    }
+
+    private long parseLong(String value, String name) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Missing or invalid " + name);
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, Map.of("error", message != null ? message : "Error"));
+    }
+
+    /**
+     * Raised when a request has no valid session token
+     */
+    private static class UnauthorizedException extends RuntimeException {
+        UnauthorizedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Raised when the signed-in user may not touch what the request names
+     */
+    private static class ForbiddenException extends RuntimeException {
+        ForbiddenException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Raised when an optimistic update loses to a concurrent one
+     */
+    private static class ConflictException extends RuntimeException {
+        ConflictException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.app.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.Objects;
+
+/**
+ * A file attached to a submission or assignment
+ * The bytes live once in the attachment store under their SHA-256 digest;
+ * this records which content it is and what the file was called.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Attachment {
+    private String digest; // Lowercase hex SHA-256 of the content
+    private String fileName;
+    private long size;
+
+    // Default constructor for Jackson
+    public Attachment() {}
+
+    public Attachment(String digest, String fileName, long size) {
+        this.digest = digest;
+        this.fileName = fileName;
+        this.size = size;
+    }
+
+    public String getDigest() { return digest; }
+    public void setDigest(String digest) { this.digest = digest; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Attachment that = (Attachment) o;
+        return Objects.equals(digest, that.digest) && Objects.equals(fileName, that.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(digest, fileName);
+    }
+
+    @Override
+    public String toString() {
+        return fileName;
+    }
+}
@@ -0,0 +1,208 @@
+package org.app.service;
+
+import org.app.model.*;
+import org.app.util.AttachmentInspector;
+import org.app.util.AttachmentStore;
+import org.app.util.DataPersistence;
+import org.app.util.EmailUtil;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mark-and-sweep garbage collector for the attachment store
+ * Marks every digest referenced by a live assignment or submission, or one
+ * still within its quarantine retention period, then
+ * walks the store one shard directory at a time and deletes the blobs left
+ * unmarked. Blobs stored or reused within the grace period are kept, since
+ * a submit stores its files before the submission becomes visible. Upload
+ * sessions with no activity for uploadExpiry are discarded too.
+ * Each file checked or deleted counts against an I/O budget of opsPerSecond,
+ * so a sweep over a large store trickles along without starving requests.
+ */
+public class AttachmentCollector {
+    private final AssignmentService assignmentService;
+    private final AttachmentStore attachmentStore = AttachmentStore.getInstance();
+    private final Duration grace;
+    private final Duration uploadExpiry;
+    private final long nanosPerOp;
+    private ScheduledExecutorService scheduler;
+    private long nextOpAt; // Only touched by the thread running a sweep
+
+    public AttachmentCollector(AssignmentService assignmentService) {
+        this(assignmentService,
+                Duration.ofMinutes(Long.parseLong(EmailUtil.getConfig("attachments.gc.grace.minutes", "60"))),
+                Duration.ofHours(Long.parseLong(EmailUtil.getConfig("attachments.gc.upload.expiry.hours", "24"))),
+                Integer.parseInt(EmailUtil.getConfig("attachments.gc.ops.per.second", "200")));
+    }
+
+    public AttachmentCollector(AssignmentService assignmentService, Duration grace, Duration uploadExpiry,
+                               int opsPerSecond) {
+        if (opsPerSecond <= 0) {
+            throw new IllegalArgumentException("I/O budget must be positive");
+        }
+        this.assignmentService = assignmentService;
+        this.grace = grace;
+        this.uploadExpiry = uploadExpiry;
+        this.nanosPerOp = TimeUnit.SECONDS.toNanos(1) / opsPerSecond;
+    }
+
+    /**
+     * Sweep every intervalMinutes on a background thread
+     */
+    public void start(long intervalMinutes) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "attachment-gc");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runOnce();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Attachment collection failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Stopped
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Run one full mark and sweep; returns what was reclaimed
+     */
+    public Result runOnce() throws IOException, InterruptedException {
+        Instant started = Instant.now();
+        Result result = new Result();
+        result.quarantineExpired = assignmentService.expireQuarantine();
+        Set<String> live = mark();
+        nextOpAt = System.nanoTime();
+
+        for (String uploadId : attachmentStore.listStaleUploads(started.minus(uploadExpiry))) {
+            spend();
+            attachmentStore.abortUpload(uploadId);
+            result.uploadsExpired++;
+        }
+
+        Instant storedBefore = started.minus(grace);
+        for (String shard : attachmentStore.listShards()) {
+            for (String digest : attachmentStore.listBlobs(shard)) {
+                spend();
+                result.blobsChecked++;
+                if (live.contains(digest)) {
+                    continue;
+                }
+                long freed = attachmentStore.deleteBlob(digest, storedBefore);
+                if (freed >= 0) {
+                    AttachmentInspector.getInstance().forget(digest);
+                    spend();
+                    result.blobsDeleted++;
+                    result.bytesFreed += freed;
+                }
+            }
+        }
+
+        System.out.println("✓ Attachment collection: " + result + " in " +
+                Duration.between(started, Instant.now()).toSeconds() + "s");
+        return result;
+    }
+
+    /**
+     * Every digest the live model or the assignments file still points at
+     * A GUI sharing the data directory saves its own changes to the file, so
+     * what is on disk can hold references this process has never seen. A file
+     * that cannot be read stops the sweep rather than sweeping with fewer marks.
+     */
+    private Set<String> mark() throws IOException {
+        Set<String> live = new HashSet<>();
+        DataPersistence.AssignmentData onDisk = new DataPersistence().readAssignments();
+        markAll(live, assignmentService.getAllAssignments(), assignmentService.getAllSubmissions());
+        // Quarantined work is out of sight but not deleted, so its files are kept until it expires
+        markAll(live, assignmentService.getQuarantinedAssignments(), assignmentService.getQuarantinedSubmissions());
+        markAll(live, onDisk.assignments.values(), onDisk.submissions.values());
+        LocalDateTime cutoff = assignmentService.getQuarantineCutoff();
+        markAll(live, unexpired(onDisk.quarantinedAssignments, onDisk.quarantinedAt, cutoff),
+                unexpired(onDisk.quarantinedSubmissions, onDisk.quarantinedAt, cutoff));
+        return live;
+    }
+
+    /**
+     * The quarantined entities not yet past the cutoff; ones with no recorded time are kept
+     */
+    private static <T> List<T> unexpired(Map<String, T> quarantined, Map<String, LocalDateTime> since,
+                                         LocalDateTime cutoff) {
+        List<T> kept = new ArrayList<>();
+        quarantined.forEach((id, entity) -> {
+            LocalDateTime at = since.get(id);
+            if (at == null || !at.isBefore(cutoff)) {
+                kept.add(entity);
+            }
+        });
+        return kept;
+    }
+
+    private static void markAll(Set<String> live, Collection<Assignment> assignments,
+                                Collection<Submission> submissions) {
+        for (Assignment assignment : assignments) {
+            for (Attachment attachment : assignment.getAttachments()) {
+                live.add(attachment.getDigest());
+            }
+        }
+        for (Submission submission : submissions) {
+            for (Attachment attachment : submission.getAttachments()) {
+                live.add(attachment.getDigest());
+            }
+        }
+    }
+
+    /**
+     * Wait for the budget to allow one more file operation
+     */
+    private void spend() throws InterruptedException {
+        long wait = nextOpAt - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        nextOpAt = Math.max(nextOpAt, System.nanoTime() - nanosPerOp) + nanosPerOp;
+    }
+
+    /**
+     * What one sweep reclaimed
+     */
+    public static class Result {
+        private int blobsChecked;
+        private int blobsDeleted;
+        private long bytesFreed;
+        private int uploadsExpired;
+        private int quarantineExpired;
+
+        public int getBlobsChecked() { return blobsChecked; }
+
+        public int getBlobsDeleted() { return blobsDeleted; }
+
+        public long getBytesFreed() { return bytesFreed; }
+
+        public int getUploadsExpired() { return uploadsExpired; }
+
+        public int getQuarantineExpired() { return quarantineExpired; }
+
+        @Override
+        public String toString() {
+            return blobsDeleted + " of " + blobsChecked + " blob(s) deleted, " + bytesFreed + " bytes freed, " +
+                    uploadsExpired + " stale upload(s) discarded, " + quarantineExpired +
+                    " quarantined item(s) expired";
+        }
+    }
+}
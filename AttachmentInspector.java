@@ -0,0 +1,340 @@
+package org.app.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.app.model.Attachment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Background inspection of stored attachments
+ * Each blob is read through memory-mapped windows, so even very large files
+ * are never copied onto the heap: its SHA-256 is recomputed to verify the
+ * stored copy, its type is detected from its leading bytes, and words from
+ * text files are indexed for search. Blobs are immutable, so each digest is
+ * inspected once; results are kept in data/attachments/meta/<digest>.json.
+ * Work runs on a small fixed pool with a bounded queue; when the queue is
+ * full new work is skipped and picked up by the next startup backfill.
+ */
+public class AttachmentInspector {
+    private static final String META_DIR = "data/attachments/meta";
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024; // Mapped at a time
+    private static final int SNIFF_BYTES = 4096;
+    private static final int MAX_TEXT_BYTES = 4 * 1024 * 1024; // Indexed from the start of a text file
+    private static final int MAX_TERMS = 10_000; // Distinct words kept per attachment
+    private static final int QUEUE_CAPACITY = 256;
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+
+    private static AttachmentInspector instance;
+
+    private final AttachmentStore attachmentStore = AttachmentStore.getInstance();
+    private final Path metaDir = Paths.get(META_DIR);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ThreadPoolExecutor workers;
+    private final Map<String, Inspection> inspections = new ConcurrentHashMap<>(); // By digest
+    private final Map<String, Set<String>> digestsByTerm = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Inspection>> listeners = new CopyOnWriteArrayList<>();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    public static synchronized AttachmentInspector getInstance() {
+        if (instance == null) {
+            instance = new AttachmentInspector(Integer.parseInt(EmailUtil.getConfig("inspection.parallelism", "2")));
+        }
+        return instance;
+    }
+
+    private AttachmentInspector(int parallelism) {
+        int[] count = {0};
+        workers = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+            Thread thread = new Thread(r, "attachment-inspector-" + (++count[0]));
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        workers.execute(this::loadInspections);
+    }
+
+    /**
+     * Queue an attachment for inspection unless it has been inspected already
+     * Never blocks; returns false if nothing was queued
+     */
+    public boolean inspect(Attachment attachment) {
+        String digest = attachment.getDigest();
+        if (inspections.containsKey(digest) || !pending.add(digest)) {
+            return false;
+        }
+        try {
+            workers.execute(() -> inspectNow(attachment));
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(digest);
+            System.out.println("✗ Inspection queue full; " + attachment.getFileName() + " will be inspected later");
+            return false;
+        }
+    }
+
+    /**
+     * Inspect, one after another on a single worker, every attachment that has no results yet
+     * Used at startup to catch up on attachments stored while inspection was not running
+     */
+    public void inspectMissing(Collection<Attachment> attachments) {
+        List<Attachment> snapshot = new ArrayList<>(attachments);
+        workers.execute(() -> {
+            try {
+                loaded.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            int inspected = 0;
+            for (Attachment attachment : snapshot) {
+                if (!inspections.containsKey(attachment.getDigest()) && pending.add(attachment.getDigest())) {
+                    inspectNow(attachment);
+                    inspected++;
+                }
+            }
+            if (inspected > 0) {
+                System.out.println("✓ Inspected " + inspected + " attachment(s) stored before inspection ran");
+            }
+        });
+    }
+
+    /**
+     * Results for a digest, or null if it has not been inspected yet
+     */
+    public Inspection getInspection(String digest) {
+        return inspections.get(digest);
+    }
+
+    /**
+     * Digests of attachments whose text contains every word of the query
+     */
+    public Set<String> findDigests(String query) {
+        Set<String> terms = new HashSet<>();
+        addTerms(CharBuffer.wrap(query), terms);
+        Set<String> found = null;
+        for (String term : terms) {
+            Set<String> digests = digestsByTerm.getOrDefault(term, Collections.emptySet());
+            if (found == null) {
+                found = new HashSet<>(digests);
+            } else {
+                found.retainAll(digests);
+            }
+            if (found.isEmpty()) {
+                break;
+            }
+        }
+        return found != null ? found : Collections.emptySet();
+    }
+
+    /**
+     * Be told about each finished inspection, on an inspector thread
+     */
+    public void addListener(Consumer<Inspection> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Drop the results for a blob that has been deleted from the store
+     */
+    public void forget(String digest) {
+        Inspection inspection = inspections.remove(digest);
+        if (inspection != null) {
+            unindex(inspection);
+        }
+        try {
+            Files.deleteIfExists(metaPath(digest));
+        } catch (IOException e) {
+            System.err.println("Could not delete inspection results for " + digest + ": " + e.getMessage());
+        }
+    }
+
+    private void inspectNow(Attachment attachment) {
+        try {
+            Inspection inspection = inspectBlob(attachment);
+            Files.createDirectories(metaDir);
+            Path temp = metaPath(attachment.getDigest()).resolveSibling(attachment.getDigest() + ".json.tmp");
+            objectMapper.writeValue(temp.toFile(), inspection);
+            Files.move(temp, metaPath(attachment.getDigest()), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            record(inspection);
+            if (!inspection.verified) {
+                System.err.println("✗ Stored copy of " + attachment.getFileName() + " is corrupt: digest mismatch");
+            }
+            for (Consumer<Inspection> listener : listeners) {
+                listener.accept(inspection);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not inspect " + attachment.getFileName() + ": " + e.getMessage());
+        } finally {
+            pending.remove(attachment.getDigest());
+        }
+    }
+
+    private Inspection inspectBlob(Attachment attachment) throws IOException {
+        Inspection inspection = new Inspection();
+        inspection.digest = attachment.getDigest();
+        MessageDigest sha256 = newDigest();
+        Set<String> terms = new HashSet<>();
+        try (FileChannel channel = FileChannel.open(attachmentStore.resolve(attachment), StandardOpenOption.READ)) {
+            inspection.size = channel.size();
+            inspection.contentType = inspection.size == 0 ? "application/x-empty" : null;
+            for (long position = 0; position < inspection.size; position += WINDOW_BYTES) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(WINDOW_BYTES, inspection.size - position));
+                if (position == 0) {
+                    inspection.contentType = detectType(window.duplicate(), attachment.getFileName());
+                    if (inspection.contentType.startsWith("text/")) {
+                        ByteBuffer text = window.duplicate();
+                        text.limit(Math.min(text.limit(), MAX_TEXT_BYTES));
+                        addTerms(StandardCharsets.UTF_8.newDecoder()
+                                .onMalformedInput(CodingErrorAction.REPLACE)
+                                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                                .decode(text), terms);
+                    }
+                }
+                sha256.update(window);
+            }
+        }
+        inspection.verified = HexFormat.of().formatHex(sha256.digest()).equals(attachment.getDigest());
+        inspection.terms = new ArrayList<>(terms);
+        return inspection;
+    }
+
+    /**
+     * Work out a file's type from its leading bytes, using the file name only to tell ZIP-based formats apart
+     */
+    private static String detectType(ByteBuffer head, String fileName) {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (startsWith(head, '%', 'P', 'D', 'F')) return "application/pdf";
+        if (startsWith(head, 0x89, 'P', 'N', 'G')) return "image/png";
+        if (startsWith(head, 0xFF, 0xD8, 0xFF)) return "image/jpeg";
+        if (startsWith(head, 'G', 'I', 'F', '8')) return "image/gif";
+        if (startsWith(head, 0xD0, 0xCF, 0x11, 0xE0)) return "application/x-ole-storage"; // Legacy .doc/.xls/.ppt
+        if (startsWith(head, 'P', 'K', 3, 4)) {
+            if (name.endsWith(".docx")) return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+            if (name.endsWith(".xlsx")) return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+            if (name.endsWith(".pptx")) return "application/vnd.openxmlformats-officedocument.presentationml.presentation";
+            return "application/zip";
+        }
+        int sniff = Math.min(head.remaining(), SNIFF_BYTES);
+        for (int i = 0; i < sniff; i++) {
+            if (head.get(head.position() + i) == 0) {
+                return "application/octet-stream";
+            }
+        }
+        if (name.endsWith(".html") || name.endsWith(".htm")) return "text/html";
+        if (name.endsWith(".csv")) return "text/csv";
+        return "text/plain";
+    }
+
+    private static boolean startsWith(ByteBuffer head, int... magic) {
+        if (head.remaining() < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((head.get(head.position() + i) & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Split text into lower-case words of 3 to 40 letters or digits
+     */
+    private static void addTerms(CharBuffer text, Set<String> terms) {
+        StringBuilder word = new StringBuilder();
+        while (terms.size() < MAX_TERMS) {
+            char c = text.hasRemaining() ? text.get() : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (word.length() < 40) {
+                    word.append(Character.toLowerCase(c));
+                }
+                continue;
+            }
+            if (word.length() >= 3) {
+                terms.add(word.toString());
+            }
+            word.setLength(0);
+            if (!text.hasRemaining()) {
+                break;
+            }
+        }
+    }
+
+    private void loadInspections() {
+        try (Stream<Path> files = Files.isDirectory(metaDir) ? Files.list(metaDir) : Stream.empty()) {
+            files.filter(path -> path.getFileName().toString().endsWith(".json")).forEach(path -> {
+                try {
+                    record(objectMapper.readValue(path.toFile(), Inspection.class));
+                } catch (IOException e) {
+                    System.err.println("Could not read inspection results " + path + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Could not read inspection results: " + e.getMessage());
+        } finally {
+            loaded.countDown();
+        }
+    }
+
+    private void record(Inspection inspection) {
+        Inspection previous = inspections.put(inspection.digest, inspection);
+        if (previous != null) {
+            unindex(previous);
+        }
+        for (String term : inspection.terms) {
+            digestsByTerm.computeIfAbsent(term, k -> ConcurrentHashMap.newKeySet()).add(inspection.digest);
+        }
+    }
+
+    private void unindex(Inspection inspection) {
+        for (String term : inspection.terms) {
+            digestsByTerm.computeIfPresent(term, (k, digests) -> {
+                digests.remove(inspection.digest);
+                return digests.isEmpty() ? null : digests;
+            });
+        }
+    }
+
+    private Path metaPath(String digest) {
+        if (digest == null || !DIGEST.matcher(digest).matches()) {
+            throw new IllegalArgumentException("Invalid attachment digest: " + digest);
+        }
+        return metaDir.resolve(digest + ".json");
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * What inspecting one blob found
+     */
+    public static class Inspection {
+        public String digest;
+        public String contentType;
+        public long size;
+        public boolean verified; // The stored bytes still hash to the digest
+        public List<String> terms = new ArrayList<>();
+    }
+}
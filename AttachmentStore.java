@@ -0,0 +1,535 @@
+package org.app.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.app.model.Attachment;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for submission and assignment files
+ * Files are kept under data/attachments/<first two digest characters>/<SHA-256 digest>.
+ * Identical files share one blob however many submissions or assignments
+ * reference them, and a blob never changes once written.
+ *
+ * Files come in through upload sessions: chunks are appended in order and
+ * hashed as they arrive, and each accepted chunk is flushed and recorded in
+ * data/attachments/incoming/<upload id>.json. An interrupted upload resumes
+ * from the last recorded byte, even after a restart. Completing an upload
+ * checks its size and, if given, the expected digest before the blob is
+ * moved into place.
+ *
+ * A blob's modification time records when it was last stored or named for
+ * use, so a garbage collector can tell blobs that may be about to be
+ * referenced from ones that were left behind.
+ */
+public class AttachmentStore {
+    private static final String STORE_DIR = "data/attachments";
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-z-]{1,64}");
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+    private static final int LOCAL_CHUNK_BYTES = 8 * 1024 * 1024;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private static AttachmentStore instance;
+
+    private final Path root;
+    private final Path incomingDir; // Upload sessions: <id>.part data and <id>.json state
+    private final Map<String, UploadSession> uploads = new ConcurrentHashMap<>();
+    private final StripedLocks blobLocks = new StripedLocks(); // Reusing a blob vs. deleting it, per digest
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static synchronized AttachmentStore getInstance() {
+        if (instance == null) {
+            instance = new AttachmentStore(Paths.get(STORE_DIR));
+        }
+        return instance;
+    }
+
+    private AttachmentStore(Path root) {
+        this.root = root;
+        this.incomingDir = root.resolve("incoming");
+    }
+
+    /**
+     * Copy a local file into the store
+     * The copy runs as an upload session keyed by the file's path, size and
+     * modification time, so retrying after a failure picks up where the last
+     * attempt stopped instead of starting over.
+     */
+    public Attachment store(Path source) throws IOException {
+        long size = Files.size(source);
+        String uploadId = localUploadId(source, size);
+        String fileName = source.getFileName().toString();
+        // Resume, join or start the session in one step, so two callers storing
+        // the same file can never both start it and truncate each other's part file
+        UploadSession session = openSession(uploadId,
+                id -> Files.exists(statePath(id)) ? resume(id) : create(id, fileName, size, null));
+        synchronized (session) {
+            if (session.completed != null) {
+                return session.completed; // Another caller stored the same file meanwhile
+            }
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                in.position(session.state.received);
+                InputStream data = Channels.newInputStream(in);
+                while (session.state.received < size) {
+                    appendChunk(uploadId, session.state.received, data,
+                            Math.min(LOCAL_CHUNK_BYTES, size - session.state.received), null);
+                }
+            }
+            return completeUpload(uploadId, null);
+        }
+    }
+
+    /**
+     * Start an upload of a file of known size on behalf of owner; returns the ID to send chunks to
+     */
+    public String beginUpload(String fileName, long size, String owner) throws IOException {
+        if (fileName == null || fileName.isBlank() || size < 0) {
+            throw new IllegalArgumentException("Invalid upload: " + fileName + " (" + size + " bytes)");
+        }
+        String uploadId = UUID.randomUUID().toString();
+        openSession(uploadId, id -> create(id, fileName, size, owner));
+        return uploadId;
+    }
+
+    /**
+     * Bytes accepted so far; an interrupted client resumes by sending from here
+     */
+    public long getReceived(String uploadId) throws IOException {
+        UploadSession session = session(uploadId);
+        synchronized (session) {
+            return session.state.received;
+        }
+    }
+
+    public long getUploadSize(String uploadId) throws IOException {
+        return session(uploadId).state.size;
+    }
+
+    /**
+     * User ID the upload was started for, or null for files stored from this machine
+     */
+    public String getUploadOwner(String uploadId) throws IOException {
+        return session(uploadId).state.owner;
+    }
+
+    public String getUploadFileName(String uploadId) throws IOException {
+        return session(uploadId).state.fileName;
+    }
+
+    /**
+     * Append length bytes read from data at offset, which must be where the upload stands
+     * When chunkDigest (hex SHA-256 of this chunk) is given and does not match,
+     * the chunk is discarded and the upload stays at offset. Returns the new
+     * number of bytes received.
+     */
+    public long appendChunk(String uploadId, long offset, InputStream data, long length, String chunkDigest)
+            throws IOException {
+        UploadSession session = session(uploadId);
+        synchronized (session) {
+            UploadState state = session.state;
+            if (session.completed != null) {
+                throw new IllegalStateException("Upload " + uploadId + " is already complete");
+            }
+            if (offset != state.received) {
+                throw new IllegalStateException("Upload " + uploadId + " expects offset " + state.received +
+                        ", got " + offset);
+            }
+            if (length <= 0 || offset + length > state.size) {
+                throw new IllegalArgumentException("Chunk of " + length + " bytes at offset " + offset +
+                        " does not fit the declared size of " + state.size);
+            }
+
+            MessageDigest chunkSha256 = newDigest();
+            MessageDigest fileSha256 = copyOf(session.fileDigest); // Only kept if the chunk is accepted
+            try (FileChannel out = FileChannel.open(partPath(uploadId), StandardOpenOption.WRITE)) {
+                out.position(offset);
+                byte[] buffer = new byte[BUFFER_BYTES];
+                long remaining = length;
+                while (remaining > 0) {
+                    int read = data.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        throw new EOFException("Chunk ended after " + (length - remaining) + " of " + length + " bytes");
+                    }
+                    chunkSha256.update(buffer, 0, read);
+                    fileSha256.update(buffer, 0, read);
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                    while (bytes.hasRemaining()) {
+                        out.write(bytes);
+                    }
+                    remaining -= read;
+                }
+                String actual = HexFormat.of().formatHex(chunkSha256.digest());
+                if (chunkDigest != null && !chunkDigest.equalsIgnoreCase(actual)) {
+                    throw new IllegalArgumentException("Chunk at offset " + offset + " is corrupt: SHA-256 " +
+                            actual + ", expected " + chunkDigest);
+                }
+                out.force(false); // On disk before the state file says it is
+            } catch (IOException | RuntimeException e) {
+                truncatePart(uploadId, offset);
+                throw e;
+            }
+
+            session.fileDigest = fileSha256;
+            state.received = offset + length;
+            saveState(uploadId, state);
+            return state.received;
+        }
+    }
+
+    /**
+     * Finish an upload and move it into the store
+     * Fails if bytes are missing. If expectedDigest is given and does not
+     * match what arrived, the upload is discarded, since it cannot be fixed
+     * by resending a chunk.
+     */
+    public Attachment completeUpload(String uploadId, String expectedDigest) throws IOException {
+        UploadSession session = session(uploadId);
+        synchronized (session) {
+            if (session.completed != null) {
+                return session.completed;
+            }
+            UploadState state = session.state;
+            Path part = partPath(uploadId);
+            if (state.received != state.size || Files.size(part) != state.size) {
+                throw new IllegalStateException("Upload " + uploadId + " has " + state.received + " of " +
+                        state.size + " bytes");
+            }
+            String digest = HexFormat.of().formatHex(session.fileDigest.digest());
+            if (expectedDigest != null && !expectedDigest.equalsIgnoreCase(digest)) {
+                abortUpload(uploadId);
+                throw new IllegalArgumentException("Upload " + uploadId + " failed verification: SHA-256 " +
+                        digest + ", expected " + expectedDigest);
+            }
+
+            Path blob = blobPath(digest);
+            ReentrantLock lock = blobLocks.lockFor(digest);
+            lock.lock();
+            try {
+                if (Files.exists(blob)) {
+                    Files.delete(part); // Duplicate content
+                    touch(blob);
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    // Same content under the same name, so a concurrent writer of this blob is harmless
+                    Files.move(part, blob, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                lock.unlock();
+            }
+            Files.deleteIfExists(statePath(uploadId));
+            session.completed = new Attachment(digest, state.fileName, state.size);
+            uploads.remove(uploadId, session);
+            return session.completed;
+        }
+    }
+
+    /**
+     * Drop an unfinished upload and its data
+     */
+    public void abortUpload(String uploadId) throws IOException {
+        checkUploadId(uploadId);
+        UploadSession session = uploads.remove(uploadId);
+        if (session != null) {
+            synchronized (session) {
+                deleteSessionFiles(uploadId);
+            }
+        } else {
+            deleteSessionFiles(uploadId);
+        }
+    }
+
+    /**
+     * Describe content that is already stored, e.g. from a completed upload named by a client
+     */
+    public Attachment describe(String digest, String fileName) throws IOException {
+        Path blob = blobPath(digest);
+        ReentrantLock lock = blobLocks.lockFor(digest);
+        lock.lock();
+        try {
+            if (!Files.exists(blob)) {
+                throw new IllegalArgumentException("No stored attachment with digest " + digest);
+            }
+            touch(blob); // About to be referenced; keep it from being collected meanwhile
+            return new Attachment(digest, fileName, Files.size(blob));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(Attachment attachment) {
+        return Files.exists(resolve(attachment));
+    }
+
+    /**
+     * Where an attachment's bytes are stored
+     */
+    public Path resolve(Attachment attachment) {
+        return blobPath(attachment.getDigest());
+    }
+
+    /**
+     * Where to put a temporary copy of an attachment under its original file name
+     * Blobs have no extension, so the desktop could not pick an application
+     * to open them with. A copy made there can be reused while it exists.
+     */
+    public Path openablePath(Attachment attachment) {
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"), "assignment-tracker", attachment.getDigest());
+        return dir.resolve(Paths.get(attachment.getFileName()).getFileName());
+    }
+
+    /**
+     * Names of the shard directories blobs are spread over
+     */
+    public List<String> listShards() throws IOException {
+        return listNames(root, name -> SHARD.matcher(name).matches());
+    }
+
+    /**
+     * Digests of the blobs in one shard directory
+     */
+    public List<String> listBlobs(String shard) throws IOException {
+        if (shard == null || !SHARD.matcher(shard).matches()) {
+            throw new IllegalArgumentException("Invalid shard: " + shard);
+        }
+        return listNames(root.resolve(shard), name -> DIGEST.matcher(name).matches() && name.startsWith(shard));
+    }
+
+    /**
+     * Delete a blob unless it was stored or reused since storedBefore
+     * Returns the bytes freed, or -1 if the blob was kept or was already gone
+     */
+    public long deleteBlob(String digest, Instant storedBefore) throws IOException {
+        Path blob = blobPath(digest);
+        ReentrantLock lock = blobLocks.lockFor(digest);
+        lock.lock();
+        try {
+            if (!Files.exists(blob) || !Files.getLastModifiedTime(blob).toInstant().isBefore(storedBefore)) {
+                return -1;
+            }
+            long size = Files.size(blob);
+            Files.delete(blob);
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * IDs of uploads that have received nothing since lastActivityBefore
+     */
+    public List<String> listStaleUploads(Instant lastActivityBefore) throws IOException {
+        List<String> stale = new ArrayList<>();
+        for (String name : listNames(incomingDir, n -> n.endsWith(".json") || n.endsWith(".part"))) {
+            String uploadId = name.substring(0, name.lastIndexOf('.'));
+            if (UPLOAD_ID.matcher(uploadId).matches() && !stale.contains(uploadId) &&
+                    Files.getLastModifiedTime(incomingDir.resolve(name)).toInstant().isBefore(lastActivityBefore) &&
+                    !isActive(uploadId, lastActivityBefore)) {
+                stale.add(uploadId);
+            }
+        }
+        return stale;
+    }
+
+    private boolean isActive(String uploadId, Instant since) throws IOException {
+        for (Path path : List.of(partPath(uploadId), statePath(uploadId))) {
+            if (Files.exists(path) && !Files.getLastModifiedTime(path).toInstant().isBefore(since)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> listNames(Path dir, Predicate<String> accept) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(dir)) {
+            entries.map(path -> path.getFileName().toString()).filter(accept).forEach(names::add);
+        }
+        return names;
+    }
+
+    private static void touch(Path blob) throws IOException {
+        Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+    }
+
+    /**
+     * Write the files for a new upload session; only called from openSession
+     */
+    private UploadSession create(String uploadId, String fileName, long size, String owner) throws IOException {
+        Files.createDirectories(incomingDir);
+        Files.deleteIfExists(partPath(uploadId)); // Left by a start that died before its state file was written
+        Files.createFile(partPath(uploadId));
+        UploadState state = new UploadState();
+        state.fileName = fileName;
+        state.size = size;
+        state.owner = owner;
+        saveState(uploadId, state);
+        return new UploadSession(state, newDigest());
+    }
+
+    private UploadSession session(String uploadId) throws IOException {
+        return openSession(uploadId, this::resume);
+    }
+
+    /**
+     * The in-memory session for an upload, opened with open if there is none yet
+     * computeIfAbsent runs open at most once per ID while no session is present.
+     */
+    private UploadSession openSession(String uploadId, SessionOpener open) throws IOException {
+        checkUploadId(uploadId);
+        try {
+            return uploads.computeIfAbsent(uploadId, id -> {
+                try {
+                    return open.open(id);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reopen an upload from its state file after a restart
+     * Anything past the last recorded chunk may be torn, so it is cut off,
+     * and the recorded prefix is hashed again to restore the running digest.
+     */
+    private UploadSession resume(String uploadId) throws IOException {
+        Path statePath = statePath(uploadId);
+        if (!Files.exists(statePath)) {
+            throw new IllegalArgumentException("Unknown upload: " + uploadId);
+        }
+        UploadState state = objectMapper.readValue(statePath.toFile(), UploadState.class);
+        Path part = partPath(uploadId);
+        if (!Files.exists(part) || Files.size(part) < state.received) {
+            Files.deleteIfExists(part);
+            Files.createFile(part);
+            state.received = 0;
+            saveState(uploadId, state);
+        } else {
+            truncatePart(uploadId, state.received);
+        }
+
+        MessageDigest sha256 = newDigest();
+        try (InputStream in = Files.newInputStream(part)) {
+            byte[] buffer = new byte[BUFFER_BYTES];
+            for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                sha256.update(buffer, 0, read);
+            }
+        }
+        System.out.println("✓ Resuming upload " + uploadId + " of " + state.fileName + " at " + state.received +
+                "/" + state.size + " bytes");
+        return new UploadSession(state, sha256);
+    }
+
+    private void saveState(String uploadId, UploadState state) throws IOException {
+        // Write then rename, so a crash never leaves a half-written state file
+        Path temp = incomingDir.resolve(uploadId + ".json.tmp");
+        objectMapper.writeValue(temp.toFile(), state);
+        Files.move(temp, statePath(uploadId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void truncatePart(String uploadId, long length) {
+        try (FileChannel channel = FileChannel.open(partPath(uploadId), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        } catch (IOException e) {
+            System.err.println("Could not truncate upload " + uploadId + ": " + e.getMessage());
+        }
+    }
+
+    private void deleteSessionFiles(String uploadId) throws IOException {
+        Files.deleteIfExists(partPath(uploadId));
+        Files.deleteIfExists(statePath(uploadId));
+    }
+
+    private Path partPath(String uploadId) {
+        return incomingDir.resolve(uploadId + ".part");
+    }
+
+    private Path statePath(String uploadId) {
+        return incomingDir.resolve(uploadId + ".json");
+    }
+
+    private static void checkUploadId(String uploadId) {
+        if (uploadId == null || !UPLOAD_ID.matcher(uploadId).matches()) {
+            throw new IllegalArgumentException("Invalid upload ID: " + uploadId);
+        }
+    }
+
+    /**
+     * Stable upload ID for a local file as it is now; changes if the file is modified
+     */
+    private static String localUploadId(Path source, long size) throws IOException {
+        String identity = source.toAbsolutePath() + "|" + size + "|" + Files.getLastModifiedTime(source).toMillis();
+        byte[] hash = newDigest().digest(identity.getBytes(StandardCharsets.UTF_8));
+        return "local-" + HexFormat.of().formatHex(hash, 0, 16);
+    }
+
+    private Path blobPath(String digest) {
+        // Digests come from persisted JSON; never let one name a path outside the store
+        if (digest == null || !DIGEST.matcher(digest).matches()) {
+            throw new IllegalArgumentException("Invalid attachment digest: " + digest);
+        }
+        return root.resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static MessageDigest copyOf(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be copied", e);
+        }
+    }
+
+    /**
+     * What is persisted about an upload between chunks
+     */
+    public static class UploadState {
+        public String fileName;
+        public long size;
+        public long received;
+        public String owner;
+    }
+
+    private static final class UploadSession {
+        private final UploadState state;
+        private MessageDigest fileDigest; // SHA-256 of the first state.received bytes
+        private Attachment completed;
+
+        private UploadSession(UploadState state, MessageDigest fileDigest) {
+            this.state = state;
+            this.fileDigest = fileDigest;
+        }
+    }
+
+    private interface SessionOpener {
+        UploadSession open(String uploadId) throws IOException;
+    }
+}
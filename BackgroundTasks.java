@@ -0,0 +1,98 @@
+package org.app.gui;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs service calls for a dashboard or dialog off the Event Dispatch Thread
+ * Work runs on a SwingWorker; the result (or error) is handed back on the EDT.
+ * The owner places getProgressBar() somewhere in its layout; it shows while
+ * any task is running, and errors are reported over the window it is in.
+ * Components passed to run() are disabled until that
+ * task finishes, so a save cannot be triggered twice, and then go back to
+ * whatever enabled state they had before.
+ */
+public class BackgroundTasks {
+    private final JProgressBar progressBar;
+    private int running; // Only touched on the EDT
+
+    public BackgroundTasks() {
+        this.progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+    }
+
+    public JProgressBar getProgressBar() {
+        return progressBar;
+    }
+
+    public boolean isBusy() {
+        return running > 0;
+    }
+
+    /**
+     * Run work in the background; failures are reported in an error dialog
+     */
+    public <T> void run(String message, Callable<T> work, Consumer<T> onSuccess, JComponent... disableWhileRunning) {
+        run(message, work, onSuccess, this::showError, disableWhileRunning);
+    }
+
+    public <T> void run(String message, Callable<T> work, Consumer<T> onSuccess,
+                        Consumer<Exception> onFailure, JComponent... disableWhileRunning) {
+        started(message);
+        boolean[] wasEnabled = new boolean[disableWhileRunning.length];
+        for (int i = 0; i < disableWhileRunning.length; i++) {
+            wasEnabled[i] = disableWhileRunning[i].isEnabled();
+            disableWhileRunning[i].setEnabled(false);
+        }
+
+        new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return work.call();
+            }
+
+            @Override
+            protected void done() {
+                finished();
+                for (int i = 0; i < disableWhileRunning.length; i++) {
+                    disableWhileRunning[i].setEnabled(wasEnabled[i]);
+                }
+                T result;
+                try {
+                    result = get();
+                } catch (CancellationException | InterruptedException e) {
+                    return;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    onFailure.accept(cause instanceof Exception ? (Exception) cause : e);
+                    return;
+                }
+                onSuccess.accept(result);
+            }
+        }.execute();
+    }
+
+    private void started(String message) {
+        running++;
+        progressBar.setString(message);
+        progressBar.setVisible(true);
+    }
+
+    private void finished() {
+        running--;
+        if (running == 0) {
+            progressBar.setVisible(false);
+        }
+    }
+
+    private void showError(Exception e) {
+        JOptionPane.showMessageDialog(SwingUtilities.getWindowAncestor(progressBar),
+                "Operation failed: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+    }
+}
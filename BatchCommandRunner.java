@@ -0,0 +1,321 @@
+package org.app.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.app.model.*;
+import org.app.service.*;
+import org.app.util.EmailOutbox;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Runs admin operations from a file instead of the interactive menu
+ * One operation per line, either as a command:
+ *   create-course as=oop name="Object Oriented Programming" code=CSE-202 instructor=ahmed@bup.edu.bd
+ * or as a JSON object with an "op" field:
+ *   {"op": "enroll", "course": "CSE-202", "student": "ali@student.bup.edu.bd"}
+ * Blank lines and lines starting with # are skipped. Users are named by
+ * email and courses by code; as=<label> on a create names the new entity so
+ * later lines can refer to it as $label. grade only grades a submission
+ * that has none yet unless given version=<n>, its current version, to
+ * regrade it. Saves are held back until the
+ * end, so the whole file costs one write per data file. A failing line is
+ * reported and the rest still run.
+ */
+public class BatchCommandRunner {
+    private static final DateTimeFormatter DUE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final UserService userService;
+    private final CourseService courseService;
+    private final AssignmentService assignmentService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> labels = new HashMap<>(); // Label -> ID of what a line created
+
+    public BatchCommandRunner(UserService userService, CourseService courseService,
+                              AssignmentService assignmentService) {
+        this.userService = userService;
+        this.courseService = courseService;
+        this.assignmentService = assignmentService;
+    }
+
+    /**
+     * Run every operation in a file, then save once
+     */
+    public Report run(Path script) throws IOException {
+        Report report = new Report();
+        long started = System.nanoTime();
+        userService.beginBatch();
+        courseService.beginBatch();
+        assignmentService.beginBatch();
+        EmailOutbox.getInstance().beginBatch();
+        try (BufferedReader reader = Files.newBufferedReader(script, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String op = "unparsed";
+                long opStarted = System.nanoTime();
+                try {
+                    Map<String, String> args = trimmed.startsWith("{") ? parseJson(trimmed) : parseCommand(trimmed);
+                    op = args.getOrDefault("op", "");
+                    execute(op, args);
+                    report.record(op, System.nanoTime() - opStarted, null);
+                } catch (RuntimeException e) {
+                    report.record(op, System.nanoTime() - opStarted, "line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            long flushStarted = System.nanoTime();
+            userService.endBatch();
+            courseService.endBatch();
+            assignmentService.endBatch();
+            EmailOutbox.getInstance().endBatch();
+            report.flushNanos = System.nanoTime() - flushStarted;
+            report.totalNanos = System.nanoTime() - started;
+        }
+        return report;
+    }
+
+    private void execute(String op, Map<String, String> args) {
+        switch (op) {
+            case "register-teacher" -> label(args, userService.registerTeacher(require(args, "name"),
+                    require(args, "email"), require(args, "password"), require(args, "department"),
+                    require(args, "employeeId")).getUserId());
+            case "register-student" -> label(args, userService.registerStudent(require(args, "name"),
+                    require(args, "email"), require(args, "password"), require(args, "studentId"),
+                    require(args, "program"), integer(args, "semester")).getUserId());
+            case "create-course" -> label(args, courseService.createCourse(require(args, "name"),
+                    require(args, "code"), require(args, "department"), integer(args, "creditHours"),
+                    require(args, "semester"), teacher(require(args, "instructor"))).getCourseId());
+            case "enroll" -> courseService.enrollStudent(course(require(args, "course")).getCourseId(),
+                    student(require(args, "student")));
+            case "create-assignment" -> {
+                Course course = course(require(args, "course"));
+                Teacher creator = args.containsKey("creator") ? teacher(args.get("creator")) : course.getInstructor();
+                if (creator == null) {
+                    throw new IllegalArgumentException("Course " + course.getCourseCode() + " has no instructor; give creator=");
+                }
+                label(args, assignmentService.createAssignment(require(args, "title"),
+                        args.getOrDefault("description", ""), course, creator, type(require(args, "type")),
+                        integer(args, "maxMarks"), dueDate(require(args, "dueDate"))).getAssignmentId());
+            }
+            case "submit" -> label(args, assignmentService.submitAssignment(assignment(require(args, "assignment")),
+                    student(require(args, "student")), args.getOrDefault("content", "")).getSubmissionId());
+            case "grade" -> {
+                String submissionId = resolve(require(args, "submission"));
+                long version = args.containsKey("version") ? integer(args, "version") : 0;
+                if (!assignmentService.gradeSubmission(submissionId, integer(args, "marks"),
+                        args.getOrDefault("feedback", ""), teacher(require(args, "teacher")), version)) {
+                    throw new IllegalStateException("Submission " + submissionId + " is at version " +
+                            assignmentService.getSubmission(submissionId).getVersion() + ", not " + version +
+                            "; give version= to regrade");
+                }
+            }
+            case "close-assignment" -> assignmentService.closeAssignment(assignment(require(args, "assignment"))
+                    .getAssignmentId());
+            default -> throw new IllegalArgumentException("Unknown operation: " + op);
+        }
+    }
+
+    // Line formats
+
+    private Map<String, String> parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        Map<String, String> args = new HashMap<>();
+        node.fields().forEachRemaining(field -> args.put(field.getKey(), field.getValue().asText()));
+        return args;
+    }
+
+    /**
+     * Parse "op key=value key="quoted value" ..."; backslash escapes a character inside quotes
+     */
+    private static Map<String, String> parseCommand(String line) {
+        Map<String, String> args = new HashMap<>();
+        int end = line.indexOf(' ');
+        args.put("op", end < 0 ? line : line.substring(0, end));
+        int i = end < 0 ? line.length() : end;
+        while (i < line.length()) {
+            while (i < line.length() && line.charAt(i) == ' ') i++;
+            if (i >= line.length()) break;
+            int eq = line.indexOf('=', i);
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value at: " + line.substring(i));
+            }
+            String key = line.substring(i, eq);
+            StringBuilder value = new StringBuilder();
+            i = eq + 1;
+            if (i < line.length() && line.charAt(i) == '"') {
+                for (i++; i < line.length() && line.charAt(i) != '"'; i++) {
+                    if (line.charAt(i) == '\\' && i + 1 < line.length()) i++;
+                    value.append(line.charAt(i));
+                }
+                if (i >= line.length()) {
+                    throw new IllegalArgumentException("Unterminated quote for " + key);
+                }
+                i++;
+            } else {
+                for (; i < line.length() && line.charAt(i) != ' '; i++) {
+                    value.append(line.charAt(i));
+                }
+            }
+            args.put(key, value.toString());
+        }
+        return args;
+    }
+
+    // Arguments
+
+    private static String require(Map<String, String> args, String key) {
+        String value = args.get(key);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing " + key);
+        }
+        return value;
+    }
+
+    private static int integer(Map<String, String> args, String key) {
+        try {
+            return Integer.parseInt(require(args, key));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + key + ": " + args.get(key));
+        }
+    }
+
+    private static AssignmentType type(String value) {
+        try {
+            return AssignmentType.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown assignment type: " + value);
+        }
+    }
+
+    private static LocalDateTime dueDate(String value) {
+        try {
+            return value.contains("T") ? LocalDateTime.parse(value) : LocalDateTime.parse(value, DUE_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid dueDate, expected yyyy-MM-dd HH:mm: " + value);
+        }
+    }
+
+    private void label(Map<String, String> args, String id) {
+        if (args.containsKey("as")) {
+            labels.put(args.get("as"), id);
+        }
+    }
+
+    /**
+     * A literal ID, or the ID an earlier line stored under $label
+     */
+    private String resolve(String value) {
+        if (!value.startsWith("$")) {
+            return value;
+        }
+        String id = labels.get(value.substring(1));
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown label: " + value);
+        }
+        return id;
+    }
+
+    // Lookups
+
+    private Teacher teacher(String emailOrLabel) {
+        User user = emailOrLabel.startsWith("$")
+                ? userService.getTeacher(resolve(emailOrLabel)) : userService.findUserByEmail(emailOrLabel);
+        if (!(user instanceof Teacher)) {
+            throw new IllegalArgumentException("Teacher not found: " + emailOrLabel);
+        }
+        return (Teacher) user;
+    }
+
+    private Student student(String emailOrLabel) {
+        User user = emailOrLabel.startsWith("$")
+                ? userService.getStudent(resolve(emailOrLabel)) : userService.findUserByEmail(emailOrLabel);
+        if (!(user instanceof Student)) {
+            throw new IllegalArgumentException("Student not found: " + emailOrLabel);
+        }
+        return (Student) user;
+    }
+
+    private Course course(String codeOrLabel) {
+        Course course = codeOrLabel.startsWith("$")
+                ? courseService.getCourse(resolve(codeOrLabel)) : courseService.findCourseByCode(codeOrLabel);
+        if (course == null) {
+            throw new IllegalArgumentException("Course not found: " + codeOrLabel);
+        }
+        return course;
+    }
+
+    private Assignment assignment(String idOrLabel) {
+        Assignment assignment = assignmentService.getAssignment(resolve(idOrLabel));
+        if (assignment == null) {
+            throw new IllegalArgumentException("Assignment not found: " + idOrLabel);
+        }
+        return assignment;
+    }
+
+    /**
+     * Per-operation timings and failures from one run
+     */
+    public static class Report {
+        private final Map<String, long[]> stats = new TreeMap<>(); // op -> {count, failed, totalNanos, maxNanos}
+        private final List<String> errors = new ArrayList<>();
+        private long flushNanos;
+        private long totalNanos;
+
+        private void record(String op, long nanos, String error) {
+            long[] s = stats.computeIfAbsent(op, k -> new long[4]);
+            s[0]++;
+            s[2] += nanos;
+            s[3] = Math.max(s[3], nanos);
+            if (error != null) {
+                s[1]++;
+                errors.add(error);
+            }
+        }
+
+        public int getOperationCount() {
+            return stats.values().stream().mapToInt(s -> (int) s[0]).sum();
+        }
+
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("%-20s %8s %7s %10s %9s %9s%n", "Operation", "Count", "Failed", "Total ms", "Avg ms", "Max ms"));
+            for (Map.Entry<String, long[]> entry : stats.entrySet()) {
+                long[] s = entry.getValue();
+                text.append(String.format("%-20s %8d %7d %10.1f %9.3f %9.3f%n", entry.getKey(), s[0], s[1],
+                        s[2] / 1e6, s[2] / 1e6 / s[0], s[3] / 1e6));
+            }
+            text.append(String.format("Save: %.1f ms, total: %.1f ms, %d operation(s), %d failed%n",
+                    flushNanos / 1e6, totalNanos / 1e6, getOperationCount(), errors.size()));
+            for (String error : errors) {
+                text.append("✗ ").append(error).append('\n');
+            }
+            return text.toString();
+        }
+    }
+}
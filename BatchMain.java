@@ -0,0 +1,37 @@
+package org.app;
+
+import org.app.controller.AssignmentTrackerController;
+import org.app.controller.BatchCommandRunner;
+import org.app.service.NotificationService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Non-interactive entry point for BUP UCAM Assignment Tracker
+ * Runs a file of admin operations (see BatchCommandRunner) and prints per-operation timings
+ * Usage: BatchMain <script>
+ * Exits with status 1 if any operation failed.
+ */
+public class BatchMain {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: BatchMain <script>");
+            System.exit(2);
+        }
+        Path script = Paths.get(args[0]);
+        if (!Files.isRegularFile(script)) {
+            System.err.println("✗ Script not found: " + script);
+            System.exit(2);
+        }
+
+        AssignmentTrackerController controller = new AssignmentTrackerController(false);
+        BatchCommandRunner.Report report = controller.runBatch(script);
+        NotificationService.getInstance().flushAll(); // Digests are in memory only; queue them before exiting
+        System.out.println("\n=== Batch Report: " + script.getFileName() + " ===");
+        System.out.print(report);
+        System.exit(report.getErrors().isEmpty() ? 0 : 1);
+    }
+}
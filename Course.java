@@ -3,8 +3,12 @@ package org.app.model;
 import com.fasterxml.jackson.annotation.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Course class for BUP UCAM Assignment Tracker
@@ -22,12 +26,16 @@ public class Course {
     private int creditHours;
     @JsonProperty("semester")
     private String semester;
-    @JsonProperty("instructor")
+    @JsonIgnore
     private Teacher instructor;
+    @JsonProperty("instructorId")
+    private String instructorId; // Persisted in place of the instructor; resolved by ObjectGraphLinker
+    @JsonProperty("enrolledStudentIds")
+    private CopyOnWriteArrayList<String> enrolledStudentIds;
     @JsonIgnore
-    private List<Student> enrolledStudents;
+    private CopyOnWriteArrayList<Student> enrolledStudents;
     @JsonIgnore
-    private List<Assignment> assignments;
+    private CopyOnWriteArrayList<Assignment> assignments;
     @JsonProperty("createdAt")
     private LocalDateTime createdAt;
     @JsonProperty("isActive")
@@ -35,8 +43,9 @@ public class Course {
 
     // Default constructor for Jackson
     public Course() {
-        this.enrolledStudents = new ArrayList<>();
-        this.assignments = new ArrayList<>();
+        this.enrolledStudents = new CopyOnWriteArrayList<>();
+        this.enrolledStudentIds = new CopyOnWriteArrayList<>();
+        this.assignments = new CopyOnWriteArrayList<>();
         this.isActive = true;
         this.createdAt = LocalDateTime.now();
     }
@@ -51,19 +60,39 @@ public class Course {
         this.creditHours = creditHours;
         this.semester = semester;
         this.instructor = instructor;
+        this.instructorId = instructor != null ? instructor.getUserId() : null;
     }
 
     public void enrollStudent(Student student) {
-        if (!enrolledStudents.contains(student)) {
-            enrolledStudents.add(student);
+        if (enrolledStudents.addIfAbsent(student)) {
+            enrolledStudentIds.addIfAbsent(student.getUserId());
             student.enrollInCourse(this);
         }
     }
 
-    public void addAssignment(Assignment assignment) {
-        if (!assignments.contains(assignment)) {
-            assignments.add(assignment);
+    /**
+     * Enroll several students with one copy of each list; returns those not already enrolled
+     */
+    public List<Student> enrollStudents(Collection<Student> students) {
+        Set<String> enrolled = new HashSet<>(enrolledStudentIds);
+        List<Student> added = new ArrayList<>();
+        List<String> addedIds = new ArrayList<>();
+        for (Student student : students) {
+            if (enrolled.add(student.getUserId())) {
+                added.add(student);
+                addedIds.add(student.getUserId());
+            }
+        }
+        enrolledStudents.addAll(added);
+        enrolledStudentIds.addAll(addedIds);
+        for (Student student : added) {
+            student.enrollInCourse(this);
         }
+        return added;
+    }
+
+    public void addAssignment(Assignment assignment) {
+        assignments.addIfAbsent(assignment);
     }
 
     public void displayCourseInfo() {
@@ -72,7 +101,7 @@ public class Course {
         System.out.println("Department: " + department);
         System.out.println("Credit Hours: " + creditHours);
         System.out.println("Semester: " + semester);
-        System.out.println("Instructor: " + instructor.getName());
+        System.out.println("Instructor: " + (instructor != null ? instructor.getName() : "N/A"));
         System.out.println("Enrolled Students: " + enrolledStudents.size());
         System.out.println("Total Assignments: " + assignments.size());
     }
@@ -97,11 +126,37 @@ public class Course {
     public void setSemester(String semester) { this.semester = semester; }
 
     public Teacher getInstructor() { return instructor; }
-    public void setInstructor(Teacher instructor) { this.instructor = instructor; }
+    public void setInstructor(Teacher instructor) {
+        this.instructor = instructor;
+        this.instructorId = instructor != null ? instructor.getUserId() : null;
+    }
+
+    public String getInstructorId() { return instructorId; }
+    public void setInstructorId(String instructorId) { this.instructorId = instructorId; }
 
     public List<Student> getEnrolledStudents() { return new ArrayList<>(enrolledStudents); }
 
+    /**
+     * Replace the enrolled students in one step (used when linking loaded data)
+     */
+    public void setEnrolledStudents(List<Student> students) {
+        this.enrolledStudents = new CopyOnWriteArrayList<>(students);
+        List<String> ids = new ArrayList<>(students.size());
+        for (Student student : students) {
+            ids.add(student.getUserId());
+        }
+        this.enrolledStudentIds = new CopyOnWriteArrayList<>(ids);
+    }
+
+    public List<String> getEnrolledStudentIds() { return enrolledStudentIds; }
+    public void setEnrolledStudentIds(List<String> enrolledStudentIds) {
+        this.enrolledStudentIds = enrolledStudentIds != null ? new CopyOnWriteArrayList<>(enrolledStudentIds) : new CopyOnWriteArrayList<>();
+    }
+
     public List<Assignment> getAssignments() { return new ArrayList<>(assignments); }
+    public void setAssignments(List<Assignment> assignments) {
+        this.assignments = new CopyOnWriteArrayList<>(assignments);
+    }
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
@@ -125,6 +180,6 @@ public class Course {
     @Override
     public String toString() {
         return String.format("Course{id='%s', name='%s', code='%s', instructor='%s'}",
-                courseId, courseName, courseCode, instructor.getName());
+                courseId, courseName, courseCode, instructor != null ? instructor.getName() : null);
     }
 }
\ No newline at end of file
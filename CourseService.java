@@ -2,7 +2,12 @@ package org.app.service;
 
 import org.app.model.*;
 import org.app.util.DataPersistence;
+import org.app.util.DeferredSave;
+import org.app.util.StripedLocks;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -10,12 +15,15 @@ import java.util.stream.Collectors;
  */
 public class CourseService {
     private Map<String, Course> courses;
-    private int courseCounter;
+    private final Map<String, Course> coursesByCode = new ConcurrentHashMap<>(); // Upper-cased code -> course
+    private final AtomicInteger courseCounter = new AtomicInteger(1);
+    private final StripedLocks courseLocks = new StripedLocks(); // Enrollments are serialized per course
+    private final DeferredSave saves = new DeferredSave("courses", this::writeData);
     private DataPersistence dataPersistence;
 
     public CourseService() {
         this.dataPersistence = new DataPersistence();
-        this.courses = new HashMap<>();  // Initialize map before loading data
+        this.courses = new ConcurrentHashMap<>();  // Initialize map before loading data
         loadData();
         System.out.println("✓ CourseService initialized with persistent storage");
     }
@@ -23,14 +31,33 @@ public class CourseService {
     private void loadData() {
         DataPersistence.CourseData courseData = dataPersistence.loadCourses();
         if (courseData.courses != null) {
-            this.courses = courseData.courses;
+            this.courses = new ConcurrentHashMap<>(courseData.courses);
         }
-        this.courseCounter = courseData.courseCounter;
+        for (Course course : courses.values()) {
+            indexCode(course);
+        }
+        this.courseCounter.set(courseData.courseCounter);
         System.out.println("✓ Loaded " + courses.size() + " courses from storage");
     }
 
+    /**
+     * Defer saves until endBatch(), so bulk changes rewrite the file once
+     */
+    public void beginBatch() {
+        saves.begin();
+    }
+
+    public void endBatch() {
+        saves.end();
+    }
+
     private void saveData() {
-        dataPersistence.saveCourses(courses, courseCounter);
+        saves.request();
+    }
+
+    private void writeData() {
+        // Only runs on the DeferredSave writer thread, so writes never overlap
+        dataPersistence.saveCourses(courses, courseCounter.get());
         System.out.println("✓ Courses saved to storage");
     }
 
@@ -39,11 +66,12 @@ public class CourseService {
      */
     public Course createCourse(String courseName, String courseCode, String department,
                                int creditHours, String semester, Teacher instructor) {
-        String courseId = "CRS-" + String.format("%04d", courseCounter++);
+        String courseId = "CRS-" + String.format("%04d", courseCounter.getAndIncrement());
         Course course = new Course(courseId, courseName, courseCode, department,
                 creditHours, semester, instructor);
 
         courses.put(courseId, course);
+        indexCode(course);
         instructor.addCourse(course);
 
         saveData(); // Save after creating course
@@ -60,62 +88,44 @@ public class CourseService {
             throw new IllegalArgumentException("Course not found");
         }
 
-        course.enrollStudent(student);
+        ReentrantLock lock = courseLocks.lockFor(courseId);
+        lock.lock();
+        try {
+            course.enrollStudent(student);
+        } finally {
+            lock.unlock();
+        }
         saveData(); // Save after enrolling student
+        DomainEventBus.getInstance().publish(new DomainEvent.StudentEnrolled(course, student));
         System.out.println("✓ Student enrolled: " + student.getName() + " in " + course.getCourseName());
     }
 
     /**
-     * Restore a student's enrolled courses based on their stored courseIds
-     * This ensures courses persist between sessions for students
+     * Enroll many students in one course in a single step; returns those newly enrolled
+     * Students already in the course are skipped.
      */
-    public void restoreStudentEnrollments(Student student) {
-        List<String> courseIds = student.getEnrolledCourseIds();
-
-        // Clear the current list to avoid duplicates
-        student.clearEnrolledCourses();
-
-        // For each courseId, get the actual course and add it to the student's enrolledCourses
-        for (String courseId : courseIds) {
-            Course course = getCourse(courseId);
-            if (course != null) {
-                // Re-enroll student in course without adding the ID again
-                if (!course.getEnrolledStudents().contains(student)) {
-                    course.enrollStudent(student);
-                }
-                // Make sure the student has the course in their list
-                student.addEnrolledCourse(course);
-            }
+    public List<Student> enrollStudents(String courseId, Collection<Student> students) {
+        Course course = courses.get(courseId);
+        if (course == null) {
+            throw new IllegalArgumentException("Course not found");
         }
 
-        System.out.println("✓ Restored " + student.getEnrolledCourses().size() +
-                          " courses for student " + student.getName());
-    }
-
-    /**
-     * Restore a teacher's courses based on their stored courseIds
-     * This ensures courses persist between sessions for teachers
-     */
-    public void restoreTeacherCourses(Teacher teacher) {
-        List<String> courseIds = teacher.getCourseIds();
-
-        // Clear the current list to avoid duplicates
-        teacher.clearCoursesTaught();
-
-        // For each courseId, get the actual course and add it to the teacher's coursesTaught
-        for (String courseId : courseIds) {
-            Course course = getCourse(courseId);
-            if (course != null) {
-                teacher.addCourseDirect(course);
-                // Make sure the course has this teacher as instructor
-                if (!course.getInstructor().equals(teacher)) {
-                    course.setInstructor(teacher);
-                }
+        List<Student> added;
+        ReentrantLock lock = courseLocks.lockFor(courseId);
+        lock.lock();
+        try {
+            added = course.enrollStudents(students);
+        } finally {
+            lock.unlock();
+        }
+        if (!added.isEmpty()) {
+            saveData();
+            for (Student student : added) {
+                DomainEventBus.getInstance().publish(new DomainEvent.StudentEnrolled(course, student));
             }
         }
-
-        System.out.println("✓ Restored " + teacher.getCoursesTaught().size() +
-                          " courses for teacher " + teacher.getName());
+        System.out.println("✓ " + added.size() + " student(s) enrolled in " + course.getCourseName());
+        return added;
     }
 
     /**
@@ -141,7 +151,7 @@ public class CourseService {
      */
     public List<Course> getCoursesByTeacher(Teacher teacher) {
         return courses.values().stream()
-                .filter(course -> course.getInstructor().equals(teacher))
+                .filter(course -> teacher.equals(course.getInstructor())) // Null once the instructor is deleted
                 .collect(Collectors.toList());
     }
 
@@ -162,7 +172,7 @@ public class CourseService {
         System.out.println("Course: " + course.getCourseName());
         System.out.println("Enrolled Students: " + course.getEnrolledStudents().size());
         System.out.println("Total Assignments: " + course.getAssignments().size());
-        System.out.println("Instructor: " + course.getInstructor().getName());
+        System.out.println("Instructor: " + (course.getInstructor() != null ? course.getInstructor().getName() : "N/A"));
     }
 
     // Getters
@@ -175,9 +185,12 @@ public class CourseService {
     }
 
     public Course findCourseByCode(String courseCode) {
-        return courses.values().stream()
-                .filter(course -> course.getCourseCode().equalsIgnoreCase(courseCode))
-                .findFirst()
-                .orElse(null);
+        return courseCode != null ? coursesByCode.get(courseCode.toUpperCase(Locale.ROOT)) : null;
+    }
+
+    private void indexCode(Course course) {
+        if (course.getCourseCode() != null) {
+            coursesByCode.putIfAbsent(course.getCourseCode().toUpperCase(Locale.ROOT), course); // First course keeps a reused code
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package org.app.service;
+
+import org.app.model.*;
+import java.util.*;
+
+/**
+ * Read view of which assignments and submissions one course has
+ * A new snapshot is published on every write, so readers never lock. Only
+ * the membership is frozen: the lists never change once published, but
+ * they hold the live Assignment and Submission objects, so a grade or a
+ * status change made after the snapshot was taken shows through it, and
+ * two reads of one submission can see different grades. Code that needs
+ * a grade and its version to agree should read the submission's version
+ * first and grade against it, as gradeSubmission(..., expectedVersion) does.
+ */
+public final class CourseSnapshot {
+    private final String courseId;
+    private final long version;
+    private final List<Assignment> assignments;
+    private final Map<String, List<Submission>> submissionsByAssignment;
+
+    private CourseSnapshot(String courseId, long version, List<Assignment> assignments,
+                           Map<String, List<Submission>> submissionsByAssignment) {
+        this.courseId = courseId;
+        this.version = version;
+        this.assignments = assignments;
+        this.submissionsByAssignment = submissionsByAssignment;
+    }
+
+    /**
+     * Create an empty snapshot for a course
+     */
+    static CourseSnapshot empty(String courseId) {
+        return new CourseSnapshot(courseId, 0, Collections.emptyList(), Collections.emptyMap());
+    }
+
+    /**
+     * Copy this snapshot with an assignment added
+     */
+    CourseSnapshot withAssignment(Assignment assignment) {
+        List<Assignment> newAssignments = new ArrayList<>(assignments);
+        if (!newAssignments.contains(assignment)) {
+            newAssignments.add(assignment);
+        }
+        return new CourseSnapshot(courseId, version + 1,
+                Collections.unmodifiableList(newAssignments), submissionsByAssignment);
+    }
+
+    /**
+     * Copy this snapshot with a submission added to its assignment
+     */
+    CourseSnapshot withSubmission(Submission submission) {
+        String assignmentId = submission.getAssignmentId();
+        List<Submission> newSubmissions = new ArrayList<>(getSubmissions(assignmentId));
+        if (!newSubmissions.contains(submission)) {
+            newSubmissions.add(submission);
+        }
+        Map<String, List<Submission>> newMap = new HashMap<>(submissionsByAssignment);
+        newMap.put(assignmentId, Collections.unmodifiableList(newSubmissions));
+        return new CourseSnapshot(courseId, version + 1, assignments, Collections.unmodifiableMap(newMap));
+    }
+
+    /**
+     * Copy this snapshot with only the version bumped, after an in-place update such as grading
+     * The entities are shared, so this only tells readers that something changed
+     */
+    CourseSnapshot touched() {
+        return new CourseSnapshot(courseId, version + 1, assignments, submissionsByAssignment);
+    }
+
+    public String getCourseId() { return courseId; }
+
+    public long getVersion() { return version; }
+
+    public List<Assignment> getAssignments() { return assignments; }
+
+    public List<Submission> getSubmissions(String assignmentId) {
+        return submissionsByAssignment.getOrDefault(assignmentId, Collections.emptyList());
+    }
+
+    public List<Submission> getAllSubmissions() {
+        List<Submission> all = new ArrayList<>();
+        for (Assignment assignment : assignments) {
+            all.addAll(getSubmissions(assignment.getAssignmentId()));
+        }
+        return all;
+    }
+
+    public int getSubmissionCount() {
+        int count = 0;
+        for (List<Submission> list : submissionsByAssignment.values()) {
+            count += list.size();
+        }
+        return count;
+    }
+}
@@ -302,13 +302,13 @@ public class CreateAssignmentDialog extends JDialog {
         }
 
         try {
-            Assignment assignment = assignmentService.createAssignment(title, description, selectedCourse, teacher,
-                    selectedType, maxMarks, dueDate);
-
-            // Add file attachments to the assignment
+            // The question files are copied into the attachment store with the assignment
+            List<File> files = new ArrayList<>();
             for (String filePath : attachmentPaths) {
-                assignment.addAttachmentPath(filePath);
+                files.add(new File(filePath));
             }
+            assignmentService.createAssignment(title, description, selectedCourse, teacher,
+                    selectedType, maxMarks, dueDate, files);
 
             success = true;
             JOptionPane.showMessageDialog(this,
@@ -1,12 +1,15 @@
 package org.app.util;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.app.model.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -102,7 +105,11 @@ public class DataPersistence {
         try {
             File file = new File(COURSES_FILE);
             if (file.exists()) {
-                return objectMapper.readValue(file, CourseData.class);
+                JsonNode root = objectMapper.readTree(file);
+                for (JsonNode course : root.path("courses")) {
+                    migrateReference(course, "instructor", "userId", "instructorId");
+                }
+                return objectMapper.treeToValue(root, CourseData.class);
             }
         } catch (IOException e) {
             System.err.println("Error loading courses data: " + e.getMessage());
@@ -114,11 +121,17 @@ public class DataPersistence {
      * Save assignments data to JSON file
      */
     public void saveAssignments(Map<String, Assignment> assignments, Map<String, Submission> submissions,
+                                Map<String, Assignment> quarantinedAssignments,
+                                Map<String, Submission> quarantinedSubmissions,
+                                Map<String, LocalDateTime> quarantinedAt,
                                 int assignmentCounter, int submissionCounter) {
         try {
             AssignmentData assignmentData = new AssignmentData();
             assignmentData.assignments = assignments;
             assignmentData.submissions = submissions;
+            assignmentData.quarantinedAssignments = quarantinedAssignments;
+            assignmentData.quarantinedSubmissions = quarantinedSubmissions;
+            assignmentData.quarantinedAt = quarantinedAt;
             assignmentData.assignmentCounter = assignmentCounter;
             assignmentData.submissionCounter = submissionCounter;
 
@@ -133,16 +146,77 @@ public class DataPersistence {
      */
     public AssignmentData loadAssignments() {
         try {
-            File file = new File(ASSIGNMENTS_FILE);
-            if (file.exists()) {
-                return objectMapper.readValue(file, AssignmentData.class);
-            }
+            return readAssignments();
         } catch (IOException e) {
             System.err.println("Error loading assignments data: " + e.getMessage());
         }
         return new AssignmentData();
     }
 
+    /**
+     * Read the assignments file as it is on disk now; unlike loadAssignments(),
+     * a file that cannot be read is an error rather than empty data
+     */
+    public AssignmentData readAssignments() throws IOException {
+        File file = new File(ASSIGNMENTS_FILE);
+        if (!file.exists()) {
+            return new AssignmentData();
+        }
+        JsonNode root = objectMapper.readTree(file);
+        recoverNestedSubmissions(root);
+        for (JsonNode assignment : root.path("assignments")) {
+            migrateReference(assignment, "course", "courseId", "courseId");
+            migrateReference(assignment, "creator", "userId", "creatorId");
+        }
+        for (JsonNode submission : root.path("submissions")) {
+            migrateReference(submission, "assignment", "assignmentId", "assignmentId");
+            migrateReference(submission, "student", "userId", "studentUserId");
+            migrateReference(submission, "gradedBy", "userId", "gradedById");
+        }
+        return objectMapper.treeToValue(root, AssignmentData.class);
+    }
+
+    /**
+     * Older files wrote each submission in full inside its assignment and only
+     * its ID in the submissions map; put the full object back into the map
+     */
+    private void recoverNestedSubmissions(JsonNode root) {
+        JsonNode submissions = root.path("submissions");
+        if (!(submissions instanceof ObjectNode)) {
+            return;
+        }
+        for (JsonNode assignment : root.path("assignments")) {
+            for (JsonNode nested : assignment.path("submissions")) {
+                String id = nested.path("submissionId").asText(null);
+                if (nested.isObject() && id != null && submissions.path(id).isTextual()) {
+                    ObjectNode recovered = ((ObjectNode) nested).deepCopy();
+                    recovered.put("assignment", assignment.path("assignmentId").asText());
+                    ((ObjectNode) submissions).set(id, recovered);
+                }
+            }
+        }
+    }
+
+    /**
+     * Older files nested the whole referenced object (or its bare ID) where only
+     * the ID is stored now; copy the ID into its new field and drop the old one
+     */
+    private void migrateReference(JsonNode entity, String legacyField, String idProperty, String idField) {
+        if (!(entity instanceof ObjectNode) || !entity.has(legacyField)) {
+            return;
+        }
+        ObjectNode node = (ObjectNode) entity;
+        JsonNode reference = node.remove(legacyField);
+        if (node.hasNonNull(idField)) {
+            return;
+        }
+        if (reference.isObject() && reference.hasNonNull(idProperty)) {
+            node.put(idField, reference.get(idProperty).asText());
+        } else if (reference.isTextual()) {
+            node.put(idField, reference.asText());
+        }
+    }
+
     /**
      * Check if data files exist (indicates if this is first run)
      */
@@ -168,6 +242,11 @@ public class DataPersistence {
     public static class AssignmentData {
         public Map<String, Assignment> assignments = new HashMap<>();
         public Map<String, Submission> submissions = new HashMap<>();
+        // Entities whose course, assignment or student no longer exists; kept out of the live data
+        public Map<String, Assignment> quarantinedAssignments = new HashMap<>();
+        public Map<String, Submission> quarantinedSubmissions = new HashMap<>();
+        // When each quarantined assignment or submission was set aside, by its ID
+        public Map<String, LocalDateTime> quarantinedAt = new HashMap<>();
         public int assignmentCounter = 1;
         public int submissionCounter = 1;
     }
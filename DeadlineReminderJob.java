@@ -0,0 +1,179 @@
+package org.app.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.app.model.*;
+import org.app.util.EmailOutbox;
+import org.app.util.EmailUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline reminder job for BUP UCAM Assignment Tracker
+ * Finds ACTIVE assignments due within the horizon, works out which enrolled
+ * students have not submitted (enrolled minus submitted), and queues one
+ * reminder email per student in batches of batchSize, all inside one
+ * outbox batch so a run costs a single flush of the outbox log.
+ * Who was reminded about which due date is kept in data/reminders_sent.json,
+ * so a restart does not send the same reminder again. Entries are dropped
+ * once their due date has passed, and moving a due date earns a new reminder.
+ */
+public class DeadlineReminderJob {
+    private static final String REMINDED_FILE = "data/reminders_sent.json";
+
+    private final AssignmentService assignmentService;
+    private final long horizonHours;
+    private final int batchSize;
+    private final Map<String, LocalDateTime> reminded = new ConcurrentHashMap<>(); // "assignmentId:userId" -> due date
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ScheduledExecutorService scheduler;
+
+    public DeadlineReminderJob(AssignmentService assignmentService) {
+        this(assignmentService,
+                Long.parseLong(EmailUtil.getConfig("reminder.horizon.hours", "24")),
+                Integer.parseInt(EmailUtil.getConfig("reminder.batch.size", "500")));
+    }
+
+    public DeadlineReminderJob(AssignmentService assignmentService, long horizonHours, int batchSize) {
+        this.assignmentService = assignmentService;
+        this.horizonHours = horizonHours;
+        this.batchSize = batchSize;
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        loadReminded();
+    }
+
+    /**
+     * Run the job every intervalMinutes on a background thread
+     */
+    public void start(long intervalMinutes) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "deadline-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                runOnce();
+            } catch (RuntimeException e) {
+                System.err.println("Deadline reminder run failed: " + e.getMessage());
+            }
+        }, 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Find due assignments and queue reminders; returns the number of emails queued
+     */
+    public int runOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusHours(horizonHours);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+
+        // Reminder lines grouped per student email so each student gets one email
+        Map<String, StringBuilder> linesByEmail = new HashMap<>();
+        boolean changed = reminded.values().removeIf(due -> due.isBefore(now)); // Nothing left to remind about
+
+        for (Assignment assignment : assignmentService.getAllAssignments()) {
+            LocalDateTime due = assignment.getDueDate();
+            if (assignment.getStatus() != AssignmentStatus.ACTIVE || due == null ||
+                    due.isBefore(now) || due.isAfter(horizon) || assignment.getCourse() == null) {
+                continue;
+            }
+
+            Set<String> submitted = new HashSet<>();
+            for (Submission submission : assignmentService.getCourseSnapshot(assignment.getCourse())
+                    .getSubmissions(assignment.getAssignmentId())) {
+                submitted.add(submission.getStudent().getUserId());
+            }
+
+            String line = "- " + assignment.getCourse().getCourseCode() + ": " + assignment.getTitle() +
+                    " (due " + due.format(formatter) + ")\n";
+            for (Student student : assignment.getCourse().getEnrolledStudents()) {
+                if (submitted.contains(student.getUserId()) || student.getEmail() == null ||
+                        student.getEmail().isBlank()) {
+                    continue;
+                }
+                if (due.equals(reminded.put(assignment.getAssignmentId() + ":" + student.getUserId(), due))) {
+                    continue; // Already reminded about this due date
+                }
+                changed = true;
+                linesByEmail.computeIfAbsent(student.getEmail(), e -> new StringBuilder()).append(line);
+            }
+        }
+
+        Map<String, String> batch = new HashMap<>();
+        int queued = 0;
+        EmailOutbox.getInstance().beginBatch(); // The whole run reaches the outbox log in one flush
+        try {
+            for (Map.Entry<String, StringBuilder> entry : linesByEmail.entrySet()) {
+                batch.put(entry.getKey(), "The following assignments are due soon and you have not submitted yet:\n\n" +
+                        entry.getValue());
+                if (batch.size() >= batchSize) {
+                    queued += enqueue(batch);
+                }
+            }
+            queued += enqueue(batch);
+        } finally {
+            EmailOutbox.getInstance().endBatch();
+        }
+        if (changed) {
+            saveReminded(); // After queueing, so a crash repeats a reminder rather than losing it
+        }
+
+        System.out.println("✓ Deadline reminders queued: " + queued);
+        return queued;
+    }
+
+    private void loadReminded() {
+        File file = new File(REMINDED_FILE);
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            reminded.putAll(objectMapper.readValue(file, new TypeReference<Map<String, LocalDateTime>>() {}));
+        } catch (IOException e) {
+            System.err.println("Error loading sent reminders: " + e.getMessage());
+        }
+    }
+
+    private void saveReminded() {
+        try {
+            Path target = Paths.get(REMINDED_FILE);
+            Path temp = Paths.get(REMINDED_FILE + ".tmp");
+            Files.createDirectories(target.getParent());
+            objectMapper.writeValue(temp.toFile(), new HashMap<>(reminded));
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Error saving sent reminders: " + e.getMessage());
+        }
+    }
+
+    private int enqueue(Map<String, String> batch) {
+        int size = batch.size();
+        if (size > 0) {
+            EmailOutbox.getInstance().enqueueAll("BUP Assignment Tracker: upcoming deadlines", batch);
+            batch.clear();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,126 @@
+package org.app.util;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes a service's data from one writer thread, coalescing changes into group commits
+ * request() records a change and waits until a write that started after it
+ * has finished. Changes that arrive while a write is running all ride on the
+ * next one, so a burst of concurrent submits costs two rewrites of the file
+ * rather than one each. Callers wait on a ReentrantLock condition, never a
+ * monitor, so a virtual thread unmounts instead of pinning its carrier for
+ * the length of the write.
+ * Between begin() and end() requests only mark the data dirty and return at
+ * once, and end() commits once. Batches may nest; the write happens when the
+ * outermost one ends.
+ */
+public class DeferredSave {
+    private final String name;
+    private final Runnable write;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition requestedChanged = lock.newCondition();
+    private final Condition writtenChanged = lock.newCondition();
+    private long requested; // Latest change number that wants writing; guarded by lock
+    private long written; // Every change up to this number is on disk; guarded by lock
+    private int depth; // Guarded by lock
+    private boolean dirty; // A change arrived during a batch; guarded by lock
+    private Thread writer; // Guarded by lock
+
+    public DeferredSave(String name, Runnable write) {
+        this.name = name;
+        this.write = write;
+    }
+
+    /**
+     * Record a change; outside a batch, returns once it has been written
+     */
+    public void request() {
+        lock.lock();
+        try {
+            if (depth > 0) {
+                dirty = true;
+            } else if (Thread.currentThread() == writer) {
+                requested++; // Changed from inside a write; the writer goes round again
+            } else {
+                awaitWrite(++requested);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void begin() {
+        lock.lock();
+        try {
+            depth++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * End a batch; returns true if this wrote the data
+     */
+    public boolean end() {
+        lock.lock();
+        try {
+            if (depth == 0) {
+                throw new IllegalStateException("No batch in progress");
+            }
+            depth--;
+            if (depth > 0 || !dirty) {
+                return false;
+            }
+            dirty = false;
+            awaitWrite(++requested);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wake the writer and wait until the given change is on disk; lock must be held
+     */
+    private void awaitWrite(long change) {
+        if (writer == null) {
+            writer = new Thread(this::runWriter, "save-" + name);
+            writer.setDaemon(true);
+            writer.start();
+        }
+        requestedChanged.signal();
+        while (written < change) {
+            writtenChanged.awaitUninterruptibly();
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            long target;
+            lock.lock();
+            try {
+                while (requested == written) {
+                    requestedChanged.awaitUninterruptibly();
+                }
+                target = requested; // Everything recorded so far goes into this write
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                write.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error saving " + name + ": " + e.getMessage());
+            }
+
+            lock.lock();
+            try {
+                written = target;
+                writtenChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
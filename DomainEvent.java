@@ -0,0 +1,83 @@
+package org.app.service;
+
+import org.app.model.*;
+
+/**
+ * Something the services changed that open views may want to reflect
+ * Events carry the canonical entities. Each event has a key naming what it
+ * is about; when several events with the same key are waiting for a
+ * subscriber, only the latest is delivered.
+ */
+public abstract class DomainEvent {
+    private final String key;
+
+    protected DomainEvent(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static final class AssignmentCreated extends DomainEvent {
+        private final Assignment assignment;
+
+        public AssignmentCreated(Assignment assignment) {
+            super("assignment-created:" + assignment.getAssignmentId());
+            this.assignment = assignment;
+        }
+
+        public Assignment getAssignment() { return assignment; }
+    }
+
+    public static final class SubmissionCreated extends DomainEvent {
+        private final Submission submission;
+
+        public SubmissionCreated(Submission submission) {
+            super("submission-created:" + submission.getSubmissionId());
+            this.submission = submission;
+        }
+
+        public Submission getSubmission() { return submission; }
+    }
+
+    /**
+     * A submission was graded or regraded; its marks are read from the submission itself
+     */
+    public static final class SubmissionGraded extends DomainEvent {
+        private final Submission submission;
+
+        public SubmissionGraded(Submission submission) {
+            super("submission-graded:" + submission.getSubmissionId());
+            this.submission = submission;
+        }
+
+        public Submission getSubmission() { return submission; }
+    }
+
+    public static final class StudentEnrolled extends DomainEvent {
+        private final Course course;
+        private final Student student;
+
+        public StudentEnrolled(Course course, Student student) {
+            super("student-enrolled:" + course.getCourseId() + ":" + student.getUserId());
+            this.course = course;
+            this.student = student;
+        }
+
+        public Course getCourse() { return course; }
+
+        public Student getStudent() { return student; }
+    }
+
+    public static final class UserDeleted extends DomainEvent {
+        private final User user;
+
+        public UserDeleted(User user) {
+            super("user-deleted:" + user.getUserId());
+            this.user = user;
+        }
+
+        public User getUser() { return user; }
+    }
+}
@@ -0,0 +1,122 @@
+package org.app.service;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus for domain events in BUP UCAM Assignment Tracker
+ * Services publish after a change is in place; publishing never blocks on
+ * subscribers. Each subscriber has its own queue of pending events, drained
+ * on the executor it subscribed with (the Event Dispatch Thread for
+ * dashboards). Events that arrive while a drain is pending are folded into
+ * the same batch, and a later event replaces a pending one with the same key.
+ */
+public class DomainEventBus {
+    private static DomainEventBus instance;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher;
+
+    public static synchronized DomainEventBus getInstance() {
+        if (instance == null) {
+            instance = new DomainEventBus();
+        }
+        return instance;
+    }
+
+    private DomainEventBus() {
+        this.dispatcher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "domain-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Receive event batches on the bus's own delivery thread
+     */
+    public Subscription subscribe(Consumer<List<DomainEvent>> listener) {
+        return subscribe(listener, dispatcher);
+    }
+
+    /**
+     * Receive event batches on the given executor, e.g. SwingUtilities::invokeLater
+     */
+    public Subscription subscribe(Consumer<List<DomainEvent>> listener, Executor deliverOn) {
+        Subscription subscription = new Subscription(listener, deliverOn);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void publish(DomainEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * One subscriber's pending events; cancel it when the subscriber goes away
+     */
+    public final class Subscription {
+        private final Consumer<List<DomainEvent>> listener;
+        private final Executor executor;
+        private final Map<String, DomainEvent> pending = new LinkedHashMap<>(); // Guarded by this
+        private boolean drainScheduled; // Guarded by this
+        private volatile boolean cancelled;
+
+        private Subscription(Consumer<List<DomainEvent>> listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        private void offer(DomainEvent event) {
+            boolean schedule;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                // Re-inserting moves a replaced event to the end, keeping batches in publish order
+                pending.remove(event.getKey());
+                pending.put(event.getKey(), event);
+                schedule = !drainScheduled;
+                drainScheduled = true;
+            }
+            if (schedule) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            List<DomainEvent> batch;
+            synchronized (this) {
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                drainScheduled = false;
+            }
+            if (cancelled || batch.isEmpty()) {
+                return;
+            }
+            try {
+                listener.accept(batch);
+            } catch (RuntimeException e) {
+                System.err.println("Error delivering domain events: " + e.getMessage());
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            synchronized (this) {
+                pending.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package org.app.util;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persistent email outbox for BUP UCAM Assignment Tracker
+ * Callers enqueue and return immediately; background workers send in
+ * batches over a reused SMTP connection, retrying failures with backoff.
+ * Pending messages survive restarts. Each change is appended as one line to
+ * data/outbox.log, so queueing or sending costs a write the size of the
+ * message rather than a rewrite of everything pending. Once the log holds
+ * more lines than there are pending messages (and at least
+ * outbox.compact.entries), it is folded into the data/outbox.json snapshot
+ * and started afresh, which keeps the total cost linear.
+ */
+public class EmailOutbox {
+    private static final String DATA_DIR = "data";
+    private static final String OUTBOX_FILE = DATA_DIR + "/outbox.json";
+    private static final String LOG_FILE = DATA_DIR + "/outbox.log";
+    private static final long BASE_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 10 * 60_000;
+    private static final long IDLE_CLOSE_SECONDS = 30; // Close the SMTP connection after this much idle time
+
+    private static EmailOutbox instance;
+
+    private final Map<String, OutboxMessage> pending = new ConcurrentHashMap<>();
+    private final DelayQueue<OutboxMessage> queue = new DelayQueue<>();
+    private final AtomicLong messageCounter = new AtomicLong();
+    private final ReentrantLock logLock = new ReentrantLock();
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter; // One log entry per line
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int compactEntries;
+    private BufferedWriter log; // Guarded by logLock
+    private int logEntries; // Lines in the log since the last compaction; guarded by logLock
+    private int batchDepth; // Guarded by logLock
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    /**
+     * Get the shared outbox, starting its workers on first use
+     */
+    public static synchronized EmailOutbox getInstance() {
+        if (instance == null) {
+            instance = new EmailOutbox(
+                    Integer.parseInt(EmailUtil.getConfig("outbox.workers", "2")),
+                    Integer.parseInt(EmailUtil.getConfig("outbox.batch.size", "50")),
+                    Integer.parseInt(EmailUtil.getConfig("outbox.max.attempts", "8")),
+                    Integer.parseInt(EmailUtil.getConfig("outbox.compact.entries", "1000")));
+        }
+        return instance;
+    }
+
+    private EmailOutbox(int workerCount, int batchSize, int maxAttempts, int compactEntries) {
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.compactEntries = compactEntries;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+        File dataDir = new File(DATA_DIR);
+        if (!dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+        loadPending();
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "email-outbox-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queue an email for delivery; returns without touching the mail server
+     */
+    public void enqueue(String to, String subject, String body) {
+        OutboxMessage message = newMessage(to, subject, body);
+        pending.put(message.id, message);
+        append(List.of(LogEntry.put(message)));
+        queue.add(message);
+    }
+
+    /**
+     * Queue one email per recipient with a single outbox write
+     */
+    public void enqueueAll(String subject, Map<String, String> bodiesByRecipient) {
+        List<OutboxMessage> messages = new ArrayList<>(bodiesByRecipient.size());
+        List<LogEntry> entries = new ArrayList<>(bodiesByRecipient.size());
+        for (Map.Entry<String, String> entry : bodiesByRecipient.entrySet()) {
+            OutboxMessage message = newMessage(entry.getKey(), subject, entry.getValue());
+            pending.put(message.id, message);
+            messages.add(message);
+            entries.add(LogEntry.put(message));
+        }
+        append(entries);
+        queue.addAll(messages);
+    }
+
+    public void enqueueVerificationEmail(String to, String code) {
+        enqueue(to, EmailUtil.getVerificationSubject(), EmailUtil.getVerificationBody(code));
+    }
+
+    /**
+     * Buffer log lines until endBatch() flushes them; messages still go out as they are queued
+     */
+    public void beginBatch() {
+        logLock.lock();
+        try {
+            batchDepth++;
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    public void endBatch() {
+        logLock.lock();
+        try {
+            if (batchDepth == 0) {
+                throw new IllegalStateException("No batch in progress");
+            }
+            if (--batchDepth == 0 && log != null) {
+                log.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving email outbox: " + e.getMessage());
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stop the workers; unsent messages stay in the outbox file
+     */
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private void runWorker() {
+        Transport transport = null;
+        List<OutboxMessage> batch = new ArrayList<>();
+        while (running) {
+            try {
+                OutboxMessage first = queue.poll(IDLE_CLOSE_SECONDS, TimeUnit.SECONDS);
+                if (first == null) {
+                    transport = close(transport);
+                    continue;
+                }
+                batch.clear();
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1); // Only takes messages that are already due
+
+                int sent = 0;
+                List<LogEntry> changes = new ArrayList<>(batch.size());
+                List<OutboxMessage> retries = new ArrayList<>();
+                try {
+                    if (transport == null || !transport.isConnected()) {
+                        transport = close(transport);
+                        transport = EmailUtil.openTransport();
+                    }
+                    for (OutboxMessage message : batch) {
+                        Message mime = EmailUtil.createMessage(message.to, message.subject, message.body);
+                        mime.saveChanges();
+                        transport.sendMessage(mime, mime.getAllRecipients());
+                        pending.remove(message.id);
+                        changes.add(LogEntry.remove(message.id));
+                        sent++;
+                    }
+                } catch (MessagingException e) {
+                    System.err.println("Email delivery failed: " + e.getMessage());
+                    transport = close(transport);
+                    for (int i = sent; i < batch.size(); i++) {
+                        OutboxMessage message = batch.get(i);
+                        if (reschedule(message, e)) {
+                            changes.add(LogEntry.put(message));
+                            retries.add(message);
+                        } else {
+                            changes.add(LogEntry.remove(message.id));
+                        }
+                    }
+                }
+                append(changes);
+                queue.addAll(retries); // Only after the new attempt count is logged
+                if (sent > 0) {
+                    System.out.println("✓ Sent " + sent + " queued email(s)");
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        close(transport);
+    }
+
+    private OutboxMessage newMessage(String to, String subject, String body) {
+        OutboxMessage message = new OutboxMessage();
+        message.id = System.currentTimeMillis() + "-" + messageCounter.incrementAndGet();
+        message.to = to;
+        message.subject = subject;
+        message.body = body;
+        message.nextAttemptAt = System.currentTimeMillis();
+        return message;
+    }
+
+    /**
+     * Count a failed attempt; returns false if the message has been given up on
+     */
+    private boolean reschedule(OutboxMessage message, MessagingException cause) {
+        message.attempts++;
+        message.lastError = cause.getMessage();
+        if (message.attempts >= maxAttempts) {
+            pending.remove(message.id);
+            System.err.println("✗ Giving up on email to " + message.to + " after " + message.attempts + " attempts");
+            return false;
+        }
+        long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(message.attempts - 1, 20));
+        message.nextAttemptAt = System.currentTimeMillis() + backoff;
+        return true;
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                // Connection already gone
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Load the snapshot, replay the log over it, then fold the two together
+     */
+    private void loadPending() {
+        try {
+            File file = new File(OUTBOX_FILE);
+            if (file.exists()) {
+                List<OutboxMessage> messages = objectMapper.readValue(file, new TypeReference<List<OutboxMessage>>() {});
+                for (OutboxMessage message : messages) {
+                    pending.put(message.id, message);
+                }
+            }
+            int replayed = replayLog();
+            queue.addAll(pending.values());
+            if (!pending.isEmpty()) {
+                System.out.println("✓ Loaded " + pending.size() + " pending email(s) from outbox");
+            }
+            if (replayed > 0) {
+                logLock.lock();
+                try {
+                    compact();
+                } finally {
+                    logLock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading email outbox: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Apply the log lines in order; returns how many were applied
+     * A torn last line from a crash mid-append is skipped.
+     */
+    private int replayLog() throws IOException {
+        Path logPath = Paths.get(LOG_FILE);
+        if (!Files.exists(logPath)) {
+            return 0;
+        }
+        int applied = 0;
+        try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                LogEntry entry;
+                try {
+                    entry = objectMapper.readValue(line, LogEntry.class);
+                } catch (IOException e) {
+                    System.err.println("Skipping unreadable outbox log line: " + e.getMessage());
+                    continue;
+                }
+                if (entry.message != null) {
+                    pending.put(entry.message.id, entry.message);
+                } else if (entry.removed != null) {
+                    pending.remove(entry.removed);
+                }
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Record changes to the pending set; flushed at once unless a batch is open
+     */
+    private void append(List<LogEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        logLock.lock();
+        try {
+            if (log == null) {
+                log = Files.newBufferedWriter(Paths.get(LOG_FILE), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (LogEntry entry : entries) {
+                log.write(lineWriter.writeValueAsString(entry));
+                log.newLine();
+            }
+            logEntries += entries.size();
+            if (logEntries >= Math.max(compactEntries, pending.size())) {
+                compact();
+            } else if (batchDepth == 0) {
+                log.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving email outbox: " + e.getMessage());
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    /**
+     * Write every pending message to the snapshot and empty the log; logLock must be held
+     * Replaying lines over a newer snapshot is harmless, so a crash between
+     * the two steps loses nothing.
+     */
+    private void compact() throws IOException {
+        Path snapshot = Paths.get(OUTBOX_FILE);
+        Path temp = Paths.get(OUTBOX_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), new ArrayList<>(pending.values()));
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (log != null) {
+            log.close();
+        }
+        log = Files.newBufferedWriter(Paths.get(LOG_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        logEntries = 0;
+    }
+
+    /**
+     * One outbox log line: a message added or updated, or the ID of one that left the outbox
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class LogEntry {
+        public OutboxMessage message;
+        public String removed;
+
+        public LogEntry() {}
+
+        static LogEntry put(OutboxMessage message) {
+            LogEntry entry = new LogEntry();
+            entry.message = message;
+            return entry;
+        }
+
+        static LogEntry remove(String id) {
+            LogEntry entry = new LogEntry();
+            entry.removed = id;
+            return entry;
+        }
+    }
+
+    /**
+     * A queued email, ordered by when it is next due
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OutboxMessage implements Delayed {
+        public String id;
+        public String to;
+        public String subject;
+        public String body;
+        public int attempts;
+        public long nextAttemptAt;
+        public String lastError;
+
+        public OutboxMessage() {}
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(nextAttemptAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(nextAttemptAt, ((OutboxMessage) other).nextAttemptAt);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.io.IOException;
 
 public class EmailUtil {
     private static Properties emailConfig;
+    private static volatile Session session; // Built once and shared by every sender
 
     static {
         loadEmailConfig();
@@ -23,7 +24,30 @@ public class EmailUtil {
         }
     }
 
-    public static void sendEmail(String to, String subject, String content) throws MessagingException {
+    /**
+     * Read an optional setting from email.properties
+     */
+    public static String getConfig(String key, String defaultValue) {
+        return emailConfig.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Get the shared mail session, creating it on first use
+     */
+    public static Session getSession() throws MessagingException {
+        Session current = session;
+        if (current != null) {
+            return current;
+        }
+        synchronized (EmailUtil.class) {
+            if (session == null) {
+                session = createSession();
+            }
+            return session;
+        }
+    }
+
+    private static Session createSession() throws MessagingException {
         if (emailConfig == null || emailConfig.isEmpty()) {
             throw new MessagingException("Email configuration not loaded. Please check email.properties file.");
         }
@@ -43,25 +67,48 @@ public class EmailUtil {
         props.put("mail.smtp.host", emailConfig.getProperty("smtp.host"));
         props.put("mail.smtp.port", emailConfig.getProperty("smtp.port"));
 
-        Session session = Session.getInstance(props, new Authenticator() {
+        return Session.getInstance(props, new Authenticator() {
             protected PasswordAuthentication getPasswordAuthentication() {
                 return new PasswordAuthentication(username, password);
             }
         });
+    }
 
-        Message message = new MimeMessage(session);
-        message.setFrom(new InternetAddress(username));
+    /**
+     * Open an SMTP connection that can send many messages before being closed
+     */
+    public static Transport openTransport() throws MessagingException {
+        Transport transport = getSession().getTransport("smtp");
+        transport.connect(emailConfig.getProperty("smtp.host"),
+                Integer.parseInt(emailConfig.getProperty("smtp.port", "587")),
+                emailConfig.getProperty("email.username"),
+                emailConfig.getProperty("email.password"));
+        return transport;
+    }
+
+    public static Message createMessage(String to, String subject, String content) throws MessagingException {
+        Message message = new MimeMessage(getSession());
+        message.setFrom(new InternetAddress(emailConfig.getProperty("email.username")));
         message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
         message.setSubject(subject);
         message.setText(content);
+        return message;
+    }
 
-        Transport.send(message);
+    public static void sendEmail(String to, String subject, String content) throws MessagingException {
+        Transport.send(createMessage(to, subject, content));
     }
 
-    public static void sendVerificationEmail(String to, String code) throws MessagingException {
-        String subject = emailConfig.getProperty("email.verification.subject", "Verify your email");
+    public static String getVerificationSubject() {
+        return emailConfig.getProperty("email.verification.subject", "Verify your email");
+    }
+
+    public static String getVerificationBody(String code) {
         String body = emailConfig.getProperty("email.verification.body", "Your verification code is: {CODE}");
-        body = body.replace("{CODE}", code);
-        sendEmail(to, subject, body);
+        return body.replace("{CODE}", code);
+    }
+
+    public static void sendVerificationEmail(String to, String code) throws MessagingException {
+        sendEmail(to, getVerificationSubject(), getVerificationBody(code));
     }
 }
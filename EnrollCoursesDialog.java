@@ -6,6 +6,8 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class EnrollCoursesDialog extends JDialog {
     private Student student;
@@ -13,6 +15,8 @@ public class EnrollCoursesDialog extends JDialog {
     private DefaultTableModel availableCoursesModel;
     private JTable availableCoursesTable;
     private boolean enrollmentSuccess = false;
+    private JButton enrollButton;
+    private final BackgroundTasks tasks = new BackgroundTasks();
 
     public EnrollCoursesDialog(JFrame parent, Student student, CourseService courseService) {
         super(parent, "Enroll in Courses", true);
@@ -67,7 +71,7 @@ public class EnrollCoursesDialog extends JDialog {
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout());
 
-        JButton enrollButton = new JButton("Enroll in Selected Course");
+        enrollButton = new JButton("Enroll in Selected Course");
         enrollButton.setBackground(new Color(76, 175, 80));
         enrollButton.setForeground(Color.WHITE);
         enrollButton.setPreferredSize(new Dimension(200, 35));
@@ -83,6 +87,7 @@ public class EnrollCoursesDialog extends JDialog {
         closeButton.setForeground(Color.WHITE);
         closeButton.addActionListener(e -> dispose());
 
+        buttonPanel.add(tasks.getProgressBar());
         buttonPanel.add(enrollButton);
         buttonPanel.add(refreshButton);
         buttonPanel.add(closeButton);
@@ -93,32 +98,34 @@ public class EnrollCoursesDialog extends JDialog {
     }
 
     private void loadAvailableCourses() {
-        availableCoursesModel.setRowCount(0);
-
-        List<Course> allCourses = courseService.getAllCourses();
-        List<Course> enrolledCourses = courseService.getCoursesForStudent(student);
-
-        if (allCourses.isEmpty()) {
-            JOptionPane.showMessageDialog(this,
-                    "No courses are available yet.\nAsk your teachers to create some courses first.",
-                    "No Courses Available",
-                    JOptionPane.INFORMATION_MESSAGE);
-            return;
-        }
-
-        for (Course course : allCourses) {
-            boolean isEnrolled = enrolledCourses.contains(course);
-            String enrolledStatus = isEnrolled ? "✓ Enrolled" : "Not Enrolled";
-
-            availableCoursesModel.addRow(new Object[]{
-                    course.getCourseCode(),
-                    course.getCourseName(),
-                    course.getDepartment(),
-                    course.getCreditHours(),
-                    course.getInstructor().getName(),
-                    enrolledStatus
-            });
-        }
+        tasks.run("Loading courses...", () -> {
+            List<Course> allCourses = courseService.getAllCourses();
+            Set<String> enrolledIds = courseService.getCoursesForStudent(student).stream()
+                    .map(Course::getCourseId)
+                    .collect(Collectors.toSet());
+            return allCourses.stream()
+                    .map(course -> new Object[]{
+                            course.getCourseCode(),
+                            course.getCourseName(),
+                            course.getDepartment(),
+                            course.getCreditHours(),
+                            course.getInstructor() != null ? course.getInstructor().getName() : "N/A",
+                            enrolledIds.contains(course.getCourseId()) ? "✓ Enrolled" : "Not Enrolled"
+                    })
+                    .collect(Collectors.toList());
+        }, rows -> {
+            availableCoursesModel.setRowCount(0);
+            if (rows.isEmpty()) {
+                JOptionPane.showMessageDialog(this,
+                        "No courses are available yet.\nAsk your teachers to create some courses first.",
+                        "No Courses Available",
+                        JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            for (Object[] row : rows) {
+                availableCoursesModel.addRow(row);
+            }
+        }, enrollButton);
     }
 
     private void handleEnrollment() {
@@ -157,25 +164,24 @@ public class EnrollCoursesDialog extends JDialog {
             return;
         }
 
-        // Enroll the student
-        try {
+        // Enroll the student; the save happens off the EDT
+        tasks.run("Enrolling...", () -> {
             courseService.enrollStudent(selectedCourse.getCourseId(), student);
+            return selectedCourse;
+        }, course -> {
             enrollmentSuccess = true;
 
             JOptionPane.showMessageDialog(this,
-                    "Successfully enrolled in " + selectedCourse.getCourseName() + "!",
+                    "Successfully enrolled in " + course.getCourseName() + "!",
                     "Enrollment Successful",
                     JOptionPane.INFORMATION_MESSAGE);
 
             // Refresh the table
             loadAvailableCourses();
-
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    "Failed to enroll in course: " + e.getMessage(),
-                    "Enrollment Failed",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> JOptionPane.showMessageDialog(this,
+                "Failed to enroll in course: " + e.getMessage(),
+                "Enrollment Failed",
+                JOptionPane.ERROR_MESSAGE), enrollButton);
     }
 
     public boolean isEnrollmentSuccess() {
@@ -0,0 +1,225 @@
+package org.app.gui;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Table model for dashboard tables in BUP UCAM Assignment Tracker
+ * Each row is backed by an entity and keyed by its ID. Updates fire row-level
+ * insert/update/delete events for just the rows that changed, so refreshing a
+ * large table after one submission or grade only repaints that row.
+ * Cell values are captured when a row is added or updated, so the table always
+ * shows what was last announced to it. Use from the Event Dispatch Thread only.
+ */
+public class EntityTableModel<T> extends AbstractTableModel {
+    private final Function<T, String> idOf;
+    private final List<Column<T>> columns;
+    private final List<T> rows = new ArrayList<>();
+    private final List<Object[]> values = new ArrayList<>();
+    private final Map<String, Integer> rowById = new HashMap<>();
+
+    @SafeVarargs
+    public EntityTableModel(Function<T, String> idOf, Column<T>... columns) {
+        this.idOf = idOf;
+        List<Column<T>> copy = new ArrayList<>(columns.length);
+        for (Column<T> column : columns) {
+            copy.add(column); // Copied element by element; the array itself never escapes
+        }
+        this.columns = List.copyOf(copy);
+    }
+
+    public static <T> Column<T> column(String name, Function<T, Object> value) {
+        return new Column<>(name, value);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.get(column).name;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return values.get(row)[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    public T getRow(int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * ID of the entity behind a row (in model coordinates)
+     */
+    public String getId(int row) {
+        return idOf.apply(rows.get(row));
+    }
+
+    /**
+     * Row index (in model coordinates) of an entity, or -1 if it is not shown
+     */
+    public int indexOf(String id) {
+        Integer row = rowById.get(id);
+        return row != null ? row : -1;
+    }
+
+    /**
+     * Add a row for a new entity or refresh the row of an existing one
+     * An existing row only fires an update if one of its cells changed
+     */
+    public void upsert(T entity) {
+        String id = idOf.apply(entity);
+        Object[] cells = cellsOf(entity);
+        Integer row = rowById.get(id);
+        if (row == null) {
+            row = rows.size();
+            rows.add(entity);
+            values.add(cells);
+            rowById.put(id, row);
+            fireTableRowsInserted(row, row);
+        } else {
+            rows.set(row, entity);
+            if (!Arrays.equals(values.get(row), cells)) {
+                values.set(row, cells);
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    public void remove(String id) {
+        Integer row = rowById.remove(id);
+        if (row == null) {
+            return;
+        }
+        rows.remove((int) row);
+        values.remove((int) row);
+        reindexFrom(row);
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * Bring the table in line with the latest entities from a service
+     * Rows that disappeared are deleted, changed rows are updated and new
+     * entities are appended; untouched rows fire nothing
+     */
+    public void sync(Collection<? extends T> latest) {
+        Map<String, T> incoming = new LinkedHashMap<>();
+        for (T entity : latest) {
+            incoming.put(idOf.apply(entity), entity);
+        }
+
+        // Delete from the bottom up so earlier indexes stay valid; contiguous rows go in one event
+        int removedFrom = -1;
+        int runEnd = -1;
+        for (int row = rows.size() - 1; row >= 0; row--) {
+            if (incoming.containsKey(idOf.apply(rows.get(row)))) {
+                if (runEnd >= 0) {
+                    fireTableRowsDeleted(row + 1, runEnd);
+                    runEnd = -1;
+                }
+                continue;
+            }
+            rowById.remove(idOf.apply(rows.get(row)));
+            rows.remove(row);
+            values.remove(row);
+            removedFrom = row;
+            if (runEnd < 0) {
+                runEnd = row;
+            }
+        }
+        if (runEnd >= 0) {
+            fireTableRowsDeleted(0, runEnd);
+        }
+        if (removedFrom >= 0) {
+            reindexFrom(removedFrom);
+        }
+
+        int firstNew = rows.size();
+        for (Map.Entry<String, T> entry : incoming.entrySet()) {
+            Integer row = rowById.get(entry.getKey());
+            Object[] cells = cellsOf(entry.getValue());
+            if (row == null) {
+                rowById.put(entry.getKey(), rows.size());
+                rows.add(entry.getValue());
+                values.add(cells);
+            } else {
+                rows.set(row, entry.getValue());
+                if (!Arrays.equals(values.get(row), cells)) {
+                    values.set(row, cells);
+                    fireTableRowsUpdated(row, row);
+                }
+            }
+        }
+        if (rows.size() > firstNew) {
+            fireTableRowsInserted(firstNew, rows.size() - 1);
+        }
+    }
+
+    /**
+     * Show exactly these entities, in this order
+     * Used for pages of a sorted query. If the same rows come back in the same
+     * order only the changed ones fire updates, as with sync(); otherwise the
+     * table is rebuilt with a single data-changed event
+     */
+    public void setRows(List<? extends T> latest) {
+        boolean sameOrder = latest.size() == rows.size();
+        for (int row = 0; sameOrder && row < latest.size(); row++) {
+            sameOrder = idOf.apply(latest.get(row)).equals(idOf.apply(rows.get(row)));
+        }
+        if (sameOrder) {
+            sync(latest);
+            return;
+        }
+
+        rows.clear();
+        values.clear();
+        rowById.clear();
+        for (T entity : latest) {
+            rowById.put(idOf.apply(entity), rows.size());
+            rows.add(entity);
+            values.add(cellsOf(entity));
+        }
+        fireTableDataChanged();
+    }
+
+    private Object[] cellsOf(T entity) {
+        Object[] cells = new Object[columns.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = columns.get(i).value.apply(entity);
+        }
+        return cells;
+    }
+
+    private void reindexFrom(int start) {
+        for (int row = start; row < rows.size(); row++) {
+            rowById.put(idOf.apply(rows.get(row)), row);
+        }
+    }
+
+    /**
+     * A column heading and how to read its cell from an entity
+     */
+    public static class Column<T> {
+        private final String name;
+        private final Function<T, Object> value;
+
+        private Column(String name, Function<T, Object> value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
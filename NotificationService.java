@@ -0,0 +1,129 @@
+package org.app.service;
+
+import org.app.model.*;
+import org.app.util.EmailOutbox;
+import org.app.util.EmailUtil;
+
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Course notification digests for BUP UCAM Assignment Tracker
+ * Events are collected per recipient and sent as one email when the
+ * recipient's window closes, so grading 300 submissions costs 300 emails
+ * at most once per window instead of one per click. Open digests are only
+ * held in memory, so they are handed to the outbox when the JVM exits.
+ */
+public class NotificationService {
+    private static NotificationService instance;
+
+    private final Map<String, Digest> digests = new ConcurrentHashMap<>(); // Keyed by recipient email
+    private final ScheduledExecutorService scheduler;
+    private final long windowSeconds;
+
+    /**
+     * Get the shared notification service
+     * The window is read from email.properties (notification.digest.window.seconds)
+     */
+    public static synchronized NotificationService getInstance() {
+        if (instance == null) {
+            instance = new NotificationService(
+                    Long.parseLong(EmailUtil.getConfig("notification.digest.window.seconds", "900")));
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::flushAll, "notification-digest-flush"));
+        }
+        return instance;
+    }
+
+    private NotificationService(long windowSeconds) {
+        this.windowSeconds = windowSeconds;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "notification-digest");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Notify every enrolled student that an assignment was posted
+     */
+    public void assignmentPosted(Assignment assignment) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+        String line = "New assignment in " + assignment.getCourse().getCourseCode() + ": " +
+                assignment.getTitle() +
+                (assignment.getDueDate() != null ? " (due " + assignment.getDueDate().format(formatter) + ")" : "");
+        for (Student student : assignment.getCourse().getEnrolledStudents()) {
+            record(student.getEmail(), "posted:" + assignment.getAssignmentId(), line);
+        }
+    }
+
+    /**
+     * Notify a student that their submission was graded
+     * Regrading within the window replaces the earlier line instead of adding one
+     */
+    public void submissionGraded(Submission submission) {
+        Assignment assignment = submission.getAssignment();
+        String line = "Graded in " + assignment.getCourse().getCourseCode() + ": " + assignment.getTitle() +
+                " - " + submission.getMarks() + "/" + assignment.getMaxMarks();
+        record(submission.getStudent().getEmail(), "graded:" + submission.getSubmissionId(), line);
+    }
+
+    /**
+     * Send every open digest now, with a single outbox write
+     */
+    public void flushAll() {
+        EmailOutbox outbox = EmailOutbox.getInstance();
+        outbox.beginBatch();
+        try {
+            for (String email : new ArrayList<>(digests.keySet())) {
+                flush(email);
+            }
+        } finally {
+            outbox.endBatch();
+        }
+    }
+
+    public int getPendingRecipientCount() {
+        return digests.size();
+    }
+
+    private void record(String email, String dedupeKey, String line) {
+        if (email == null || email.isEmpty()) {
+            return;
+        }
+        digests.compute(email, (key, digest) -> {
+            if (digest == null) {
+                digest = new Digest();
+                // First event for this recipient opens their window
+                scheduler.schedule(() -> flush(email), windowSeconds, TimeUnit.SECONDS);
+            }
+            digest.lines.put(dedupeKey, line);
+            return digest;
+        });
+    }
+
+    private void flush(String email) {
+        Digest digest = digests.remove(email);
+        if (digest == null || digest.lines.isEmpty()) {
+            return;
+        }
+        int count = digest.lines.size();
+        StringBuilder body = new StringBuilder("You have " + count + " new update(s):\n\n");
+        for (String line : digest.lines.values()) {
+            body.append("- ").append(line).append('\n');
+        }
+        EmailOutbox.getInstance().enqueue(email, "BUP Assignment Tracker: " + count + " update(s)", body.toString());
+        System.out.println("✓ Queued digest with " + count + " update(s) for " + email);
+    }
+
+    /**
+     * Pending lines for one recipient, in arrival order
+     * Only touched inside digests.compute/remove, so it needs no locking of its own
+     */
+    private static class Digest {
+        private final Map<String, String> lines = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,139 @@
+package org.app.service;
+
+import org.app.model.*;
+
+import java.util.*;
+
+/**
+ * Links the loaded users, courses, assignments and submissions into one object graph
+ * References are persisted as IDs; this resolves each ID to the canonical
+ * instance held by its service and rebuilds every relationship list in a
+ * single linear pass. Runs once after the services load, and the services
+ * keep both sides in sync on every mutation after that. Assignments whose
+ * course, and submissions whose assignment or student, no longer exists are
+ * quarantined rather than left half-linked; a missing instructor, creator or
+ * grader is allowed and simply stays null. Students deleted later have
+ * their submissions quarantined the same way without waiting for a reload.
+ */
+public class ObjectGraphLinker {
+
+    private ObjectGraphLinker() {}
+
+    /**
+     * Resolve every persisted ID reference and fill in the in-memory relationship lists
+     */
+    public static void link(UserService userService, CourseService courseService,
+                            AssignmentService assignmentService) {
+        Map<String, List<Course>> coursesByTeacher = new HashMap<>();
+        Map<String, List<Course>> coursesByStudent = new HashMap<>();
+        Map<String, List<Assignment>> assignmentsByCourse = new HashMap<>();
+        Map<String, List<Assignment>> assignmentsByTeacher = new HashMap<>();
+        Map<String, List<Submission>> submissionsByAssignment = new HashMap<>();
+        Map<String, List<Submission>> submissionsByStudent = new HashMap<>();
+        int unresolved = 0;
+
+        for (Course course : courseService.getAllCourses()) {
+            Teacher instructor = course.getInstructorId() != null
+                    ? userService.getTeacher(course.getInstructorId()) : null;
+            if (instructor != null) {
+                course.setInstructor(instructor);
+                coursesByTeacher.computeIfAbsent(instructor.getUserId(), k -> new ArrayList<>()).add(course);
+            } else if (course.getInstructorId() != null) {
+                unresolved++;
+            }
+
+            List<Student> enrolled = new ArrayList<>(course.getEnrolledStudentIds().size());
+            for (String studentId : course.getEnrolledStudentIds()) {
+                Student student = userService.getStudent(studentId);
+                if (student != null) {
+                    enrolled.add(student);
+                    coursesByStudent.computeIfAbsent(studentId, k -> new ArrayList<>()).add(course);
+                } else {
+                    unresolved++; // Deleted user; dropped on the next save
+                }
+            }
+            course.setEnrolledStudents(enrolled);
+        }
+
+        // An assignment needs its course and a submission its assignment and student; the rest are quarantined
+        List<Assignment> orphanedAssignments = new ArrayList<>();
+        Set<String> orphanedAssignmentIds = new HashSet<>();
+        for (Assignment assignment : assignmentService.getAllAssignments()) {
+            Course course = assignment.getCourseId() != null
+                    ? courseService.getCourse(assignment.getCourseId()) : null;
+            if (course == null) {
+                orphanedAssignments.add(assignment);
+                orphanedAssignmentIds.add(assignment.getAssignmentId());
+                continue;
+            }
+            assignment.setCourse(course);
+            assignmentsByCourse.computeIfAbsent(course.getCourseId(), k -> new ArrayList<>()).add(assignment);
+            Teacher creator = assignment.getCreatorId() != null
+                    ? userService.getTeacher(assignment.getCreatorId()) : null;
+            if (creator != null) {
+                assignment.setCreator(creator);
+                assignmentsByTeacher.computeIfAbsent(creator.getUserId(), k -> new ArrayList<>()).add(assignment);
+            } else {
+                unresolved++; // Deleted teacher; the assignment stays without a creator
+            }
+        }
+
+        List<Submission> orphanedSubmissions = new ArrayList<>();
+        for (Submission submission : assignmentService.getAllSubmissions()) {
+            Assignment assignment = submission.getAssignmentId() != null
+                    && !orphanedAssignmentIds.contains(submission.getAssignmentId())
+                    ? assignmentService.getAssignment(submission.getAssignmentId()) : null;
+            Student student = submission.getStudentUserId() != null
+                    ? userService.getStudent(submission.getStudentUserId()) : null;
+            if (assignment == null || student == null) {
+                orphanedSubmissions.add(submission);
+                continue;
+            }
+            submission.setAssignment(assignment);
+            submissionsByAssignment.computeIfAbsent(assignment.getAssignmentId(), k -> new ArrayList<>()).add(submission);
+            submission.setStudent(student);
+            submissionsByStudent.computeIfAbsent(student.getUserId(), k -> new ArrayList<>()).add(submission);
+            if (submission.getGradedById() != null) {
+                Teacher grader = userService.getTeacher(submission.getGradedById());
+                if (grader != null) {
+                    submission.setGradedBy(grader);
+                }
+            }
+        }
+        assignmentService.quarantine(orphanedAssignments, orphanedSubmissions);
+        DomainEventBus.getInstance().subscribe(batch -> {
+            for (DomainEvent event : batch) {
+                if (event instanceof DomainEvent.UserDeleted
+                        && ((DomainEvent.UserDeleted) event).getUser() instanceof Student) {
+                    assignmentService.quarantineSubmissionsOf(((DomainEvent.UserDeleted) event).getUser().getUserId());
+                }
+            }
+        });
+
+        // Each list is set once, so there is no per-element copy-on-write cost
+        for (Course course : courseService.getAllCourses()) {
+            course.setAssignments(listFor(assignmentsByCourse, course.getCourseId()));
+        }
+        for (Assignment assignment : assignmentService.getAllAssignments()) {
+            assignment.setSubmissions(listFor(submissionsByAssignment, assignment.getAssignmentId()));
+        }
+        for (Teacher teacher : userService.getAllTeachers()) {
+            teacher.setCoursesTaught(listFor(coursesByTeacher, teacher.getUserId()));
+            teacher.setAssignmentsCreated(listFor(assignmentsByTeacher, teacher.getUserId()));
+        }
+        for (Student student : userService.getAllStudents()) {
+            student.setEnrolledCourses(listFor(coursesByStudent, student.getUserId()));
+            student.setSubmissions(listFor(submissionsByStudent, student.getUserId()));
+        }
+
+        System.out.println("✓ Linked object graph" +
+                (unresolved > 0 ? " (" + unresolved + " dangling reference(s) skipped)" : "") +
+                (orphanedAssignments.size() + orphanedSubmissions.size() > 0
+                        ? " (" + (orphanedAssignments.size() + orphanedSubmissions.size()) + " quarantined)" : ""));
+    }
+
+    private static <T> List<T> listFor(Map<String, List<T>> index, String key) {
+        List<T> list = index.get(key);
+        return list != null ? list : Collections.emptyList();
+    }
+}
@@ -0,0 +1,243 @@
+package org.app.gui;
+
+import org.app.model.Attachment;
+import org.app.util.AttachmentInspector;
+import org.app.util.AttachmentStore;
+import org.app.util.EmailUtil;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * In-dialog previews of attachments for grading
+ * Text and code files preview as their first part, images as a scaled-down
+ * copy. Previews are built on background threads and kept in an LRU cache
+ * bounded by memory (preview.cache.mb), keyed by digest, so flicking back
+ * and forth through submissions never rebuilds one. prefetch() warms the
+ * cache for the submission a teacher is likely to open next.
+ */
+public class PreviewCache {
+    private static final int MAX_TEXT_BYTES = 256 * 1024;
+    private static final long MAX_IMAGE_BYTES = 50L * 1024 * 1024; // Larger images are opened externally
+    private static final int MAX_IMAGE_SIDE = 1600;
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("png", "jpg", "jpeg", "gif", "bmp");
+    private static final Set<String> BINARY_EXTENSIONS = Set.of("pdf", "doc", "docx", "xls", "xlsx", "ppt", "pptx",
+            "zip", "rar", "7z", "exe", "jar", "class", "mp3", "mp4");
+
+    private static PreviewCache instance;
+
+    private final long capacityBytes;
+    private final ExecutorService workers;
+    private final Map<String, Preview> cache = new LinkedHashMap<>(16, 0.75f, true); // Access order; guarded by this
+    private final Map<String, CompletableFuture<Preview>> loading = new ConcurrentHashMap<>();
+    private long cachedBytes; // Guarded by this
+
+    public static synchronized PreviewCache getInstance() {
+        if (instance == null) {
+            instance = new PreviewCache(Long.parseLong(EmailUtil.getConfig("preview.cache.mb", "64")) * 1024 * 1024);
+        }
+        return instance;
+    }
+
+    private PreviewCache(long capacityBytes) {
+        this.capacityBytes = capacityBytes;
+        int[] count = {0};
+        this.workers = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "attachment-preview-" + (++count[0]));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The preview for an attachment, from the cache or built in the background
+     * The future completes on a worker thread; hop to the EDT before touching components
+     */
+    public CompletableFuture<Preview> get(Attachment attachment) {
+        Preview cached = cached(attachment.getDigest());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Preview> future = new CompletableFuture<>();
+        CompletableFuture<Preview> existing = loading.putIfAbsent(attachment.getDigest(), future);
+        if (existing != null) {
+            return existing; // Already being built, e.g. by a prefetch
+        }
+        workers.execute(() -> {
+            try {
+                Preview preview = build(attachment);
+                put(attachment.getDigest(), preview);
+                future.complete(preview);
+            } catch (Throwable t) {
+                future.completeExceptionally(t); // Never leave waiters hanging, even on an Error
+                throw t;
+            } finally {
+                loading.remove(attachment.getDigest(), future);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Start building previews that will probably be wanted soon
+     */
+    public void prefetch(Collection<Attachment> attachments) {
+        for (Attachment attachment : attachments) {
+            get(attachment);
+        }
+    }
+
+    private synchronized Preview cached(String digest) {
+        return cache.get(digest);
+    }
+
+    private synchronized void put(String digest, Preview preview) {
+        if (preview.weight > capacityBytes) {
+            return;
+        }
+        Preview previous = cache.put(digest, preview);
+        cachedBytes += preview.weight - (previous != null ? previous.weight : 0);
+        Iterator<Preview> eldest = cache.values().iterator();
+        while (cachedBytes > capacityBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    private Preview build(Attachment attachment) {
+        AttachmentStore store = AttachmentStore.getInstance();
+        if (!store.contains(attachment)) {
+            return Preview.message("File not found: " + attachment.getFileName());
+        }
+        Path blob = store.resolve(attachment);
+        String kind = kindOf(attachment);
+        try {
+            if (kind.equals("image")) {
+                return Files.size(blob) > MAX_IMAGE_BYTES
+                        ? Preview.message("Image too large to preview; use View in External App")
+                        : image(blob);
+            }
+            if (kind.equals("text")) {
+                return text(blob);
+            }
+            return Preview.message("No preview for " + attachment.getFileName() + "; use View in External App");
+        } catch (IOException | RuntimeException e) {
+            return Preview.message("Cannot preview " + attachment.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * "text", "image" or "other", from the inspected type if there is one, otherwise the file extension
+     */
+    private static String kindOf(Attachment attachment) {
+        AttachmentInspector.Inspection inspection = AttachmentInspector.getInstance().getInspection(attachment.getDigest());
+        if (inspection != null && inspection.contentType != null) {
+            if (inspection.contentType.startsWith("image/")) return "image";
+            if (inspection.contentType.startsWith("text/")) return "text";
+            return "other";
+        }
+        String name = attachment.getFileName().toLowerCase(Locale.ROOT);
+        String extension = name.contains(".") ? name.substring(name.lastIndexOf('.') + 1) : "";
+        if (IMAGE_EXTENSIONS.contains(extension)) return "image";
+        return BINARY_EXTENSIONS.contains(extension) ? "other" : "text";
+    }
+
+    private static Preview text(Path blob) throws IOException {
+        byte[] head;
+        long size = Files.size(blob);
+        try (InputStream in = Files.newInputStream(blob)) {
+            head = in.readNBytes(MAX_TEXT_BYTES);
+        }
+        for (byte b : head) {
+            if (b == 0) {
+                return Preview.message("Binary file; use View in External App");
+            }
+        }
+        String text = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(ByteBuffer.wrap(head)).toString();
+        if (size > head.length) {
+            text += "\n\n[Preview shows the first " + head.length / 1024 + " KB of " +
+                    TransferProgressDialog.formatBytes(size) + "]";
+        }
+        return new Preview(text, null, null, text.length() * 2L);
+    }
+
+    /**
+     * Decode an image at reduced resolution, so a huge one never lands in memory at full size
+     * Every n-th pixel is read, for the largest n that keeps the long side at
+     * least MAX_IMAGE_SIDE; the result is then scaled down smoothly.
+     */
+    private static Preview image(Path blob) throws IOException {
+        BufferedImage image;
+        try (ImageInputStream in = ImageIO.createImageInputStream(blob.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                return Preview.message("Unsupported image format; use View in External App");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / MAX_IMAGE_SIDE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        double scale = Math.min(1.0, (double) MAX_IMAGE_SIDE / Math.max(image.getWidth(), image.getHeight()));
+        if (scale < 1.0) {
+            int width = Math.max(1, (int) (image.getWidth() * scale));
+            int height = Math.max(1, (int) (image.getHeight() * scale));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, width, height, null);
+            g.dispose();
+            image = scaled;
+        }
+        return new Preview(null, image, null, (long) image.getWidth() * image.getHeight() * 4);
+    }
+
+    /**
+     * What to show for one attachment: text, an image, or a message saying why there is no preview
+     */
+    public static final class Preview {
+        private final String text;
+        private final BufferedImage image;
+        private final String message;
+        private final long weight; // Approximate bytes held
+
+        private Preview(String text, BufferedImage image, String message, long weight) {
+            this.text = text;
+            this.image = image;
+            this.message = message;
+            this.weight = weight;
+        }
+
+        static Preview message(String message) {
+            return new Preview(null, null, message, message.length() * 2L);
+        }
+
+        public String getText() { return text; }
+
+        public BufferedImage getImage() { return image; }
+
+        public String getMessage() { return message; }
+    }
+}
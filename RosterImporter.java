@@ -0,0 +1,259 @@
+package org.app.service;
+
+import org.app.model.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk enrollment from a CSV roster of studentId,courseCode rows
+ * The file is streamed CHUNK_ROWS lines at a time. Rows in a chunk are
+ * parsed and resolved in parallel through the student ID and course code
+ * indexes, then the valid ones are enrolled course by course in memory.
+ * Saves are held until the whole file is done, so a semester's roster
+ * costs one rewrite of the courses file. Extra columns are ignored and a
+ * header row is skipped. Rows that cannot be applied are listed in the
+ * report with their line number; the rest still go in.
+ */
+public class RosterImporter {
+    private static final int CHUNK_ROWS = 10_000;
+
+    private final UserService userService;
+    private final CourseService courseService;
+
+    public RosterImporter(UserService userService, CourseService courseService) {
+        this.userService = userService;
+        this.courseService = courseService;
+    }
+
+    /**
+     * Import a roster file; a non-null instructor limits it to that teacher's courses
+     */
+    public Report importCsv(Path csv, Teacher instructor) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            return importCsv(reader, instructor);
+        }
+    }
+
+    public Report importCsv(BufferedReader reader, Teacher instructor) throws IOException {
+        Report report = new Report();
+        long started = System.nanoTime();
+        Set<String> seen = new HashSet<>(); // courseId:userId pairs already taken from this file
+        List<String> chunk = new ArrayList<>(CHUNK_ROWS);
+        int lineNumber = 0;
+        courseService.beginBatch();
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                chunk.add(line);
+                if (chunk.size() == CHUNK_ROWS) {
+                    apply(chunk, lineNumber + 1, instructor, seen, report);
+                    lineNumber += chunk.size();
+                    chunk.clear();
+                }
+            }
+            apply(chunk, lineNumber + 1, instructor, seen, report);
+        } finally {
+            long saveStarted = System.nanoTime();
+            courseService.endBatch();
+            report.saveNanos = System.nanoTime() - saveStarted;
+            report.totalNanos = System.nanoTime() - started;
+        }
+        System.out.println("✓ Roster import: " + report.getSummary());
+        return report;
+    }
+
+    /**
+     * Resolve a chunk in parallel, then enroll its valid rows grouped by course
+     */
+    private void apply(List<String> chunk, int firstLine, Teacher instructor, Set<String> seen, Report report) {
+        Row[] rows = IntStream.range(0, chunk.size()).parallel()
+                .mapToObj(i -> resolve(chunk.get(i), firstLine + i, instructor))
+                .toArray(Row[]::new);
+
+        Map<String, List<Student>> byCourse = new LinkedHashMap<>();
+        for (Row row : rows) {
+            if (row == null) {
+                continue; // Blank line or header
+            }
+            report.rows++;
+            if (row.error != null) {
+                report.errors.add(new RowError(row.line, row.error));
+            } else if (!seen.add(row.course.getCourseId() + ":" + row.student.getUserId())) {
+                report.duplicates++;
+            } else {
+                byCourse.computeIfAbsent(row.course.getCourseId(), k -> new ArrayList<>()).add(row.student);
+            }
+        }
+
+        for (Map.Entry<String, List<Student>> entry : byCourse.entrySet()) {
+            int added = courseService.enrollStudents(entry.getKey(), entry.getValue()).size();
+            report.enrolled += added;
+            report.alreadyEnrolled += entry.getValue().size() - added;
+        }
+    }
+
+    /**
+     * Parse and look up one line; null for lines that are not roster rows
+     */
+    private Row resolve(String line, int lineNumber, Teacher instructor) {
+        if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+        if (line.isBlank()) {
+            return null;
+        }
+        List<String> cells;
+        try {
+            cells = parseCsvLine(line);
+        } catch (IllegalArgumentException e) {
+            return Row.error(lineNumber, e.getMessage());
+        }
+        if (cells.size() < 2) {
+            return Row.error(lineNumber, "Expected studentId,courseCode");
+        }
+        String studentId = cells.get(0).trim();
+        String courseCode = cells.get(1).trim();
+        if (lineNumber == 1 && studentId.replaceAll("[^A-Za-z]", "").equalsIgnoreCase("studentid")) {
+            return null;
+        }
+        if (studentId.isEmpty() || courseCode.isEmpty()) {
+            return Row.error(lineNumber, "Missing " + (studentId.isEmpty() ? "studentId" : "courseCode"));
+        }
+
+        Student student = userService.findStudentByStudentId(studentId);
+        if (student == null) {
+            return Row.error(lineNumber, "Unknown student ID: " + studentId);
+        }
+        if (!student.isActive()) {
+            return Row.error(lineNumber, "Student " + studentId + " is deactivated");
+        }
+        Course course = courseService.findCourseByCode(courseCode);
+        if (course == null) {
+            return Row.error(lineNumber, "Unknown course code: " + courseCode);
+        }
+        if (!course.isActive()) {
+            return Row.error(lineNumber, "Course " + course.getCourseCode() + " is not active");
+        }
+        if (instructor != null && !instructor.getUserId().equals(course.getInstructorId())) {
+            return Row.error(lineNumber, "Course " + course.getCourseCode() + " is not taught by " + instructor.getName());
+        }
+        return new Row(lineNumber, student, course, null);
+    }
+
+    /**
+     * Split one CSV line; fields may be quoted, with "" for a quote inside
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static final class Row {
+        private final int line;
+        private final Student student;
+        private final Course course;
+        private final String error;
+
+        private Row(int line, Student student, Course course, String error) {
+            this.line = line;
+            this.student = student;
+            this.course = course;
+            this.error = error;
+        }
+
+        private static Row error(int line, String error) {
+            return new Row(line, null, null, error);
+        }
+    }
+
+    /**
+     * A roster line that was not applied, and why
+     */
+    public static final class RowError {
+        private final int line;
+        private final String message;
+
+        private RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() { return line; }
+
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    /**
+     * Outcome of one import
+     */
+    public static class Report {
+        private int rows;
+        private int enrolled;
+        private int alreadyEnrolled;
+        private int duplicates;
+        private final List<RowError> errors = new ArrayList<>();
+        private long saveNanos;
+        private long totalNanos;
+
+        public int getRows() { return rows; }
+
+        public int getEnrolled() { return enrolled; }
+
+        public int getAlreadyEnrolled() { return alreadyEnrolled; }
+
+        public int getDuplicates() { return duplicates; }
+
+        public List<RowError> getErrors() { return Collections.unmodifiableList(errors); }
+
+        public String getSummary() {
+            return String.format("%d row(s), %d enrolled, %d already enrolled, %d duplicate(s), %d error(s) " +
+                    "in %.1f ms (save %.1f ms)", rows, enrolled, alreadyEnrolled, duplicates, errors.size(),
+                    totalNanos / 1e6, saveNanos / 1e6);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(getSummary()).append('\n');
+            for (RowError error : errors) {
+                text.append("✗ ").append(error).append('\n');
+            }
+            return text.toString();
+        }
+    }
+}
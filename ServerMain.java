@@ -0,0 +1,56 @@
+package org.app;
+
+import org.app.controller.AssignmentTrackerServer;
+import org.app.service.AssignmentService;
+import org.app.service.AttachmentCollector;
+import org.app.service.CourseService;
+import org.app.service.DeadlineReminderJob;
+import org.app.service.NotificationService;
+import org.app.service.ObjectGraphLinker;
+import org.app.service.UserService;
+import org.app.util.EmailUtil;
+import org.app.util.SessionTokens;
+
+/**
+ * Headless entry point for BUP UCAM Assignment Tracker
+ * Serves the JSON HTTP API instead of the Swing GUI
+ * Usage: ServerMain [port]   (default 8080)
+ * Listens on server.bind.address from the config, loopback unless set
+ */
+public class ServerMain {
+    private static final int DEFAULT_PORT = 8080;
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        if (args.length > 0) {
+            try {
+                port = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port '" + args[0] + "', using " + DEFAULT_PORT);
+            }
+        }
+
+        System.out.println("=== BUP UCAM Assignment Tracker API Server ===");
+        UserService userService = new UserService();
+        CourseService courseService = new CourseService();
+        AssignmentService assignmentService = new AssignmentService();
+        ObjectGraphLinker.link(userService, courseService, assignmentService);
+        SessionTokens sessions = new SessionTokens(
+                Long.parseLong(EmailUtil.getConfig("server.session.hours", "12")) * 60 * 60_000L);
+        AssignmentTrackerServer server = new AssignmentTrackerServer(userService, courseService, assignmentService,
+                sessions);
+        server.start(EmailUtil.getConfig("server.bind.address", "127.0.0.1"), port);
+
+        // The server is the long-running process, so it owns the reminder and attachment cleanup schedules
+        DeadlineReminderJob reminderJob = new DeadlineReminderJob(assignmentService);
+        reminderJob.start(Long.parseLong(EmailUtil.getConfig("reminder.interval.minutes", "60")));
+        AttachmentCollector attachmentCollector = new AttachmentCollector(assignmentService);
+        attachmentCollector.start(Long.parseLong(EmailUtil.getConfig("attachments.gc.interval.minutes", "360")));
+
+        // Let in-flight requests finish on Ctrl+C, then queue what they left in open digests
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(2);
+            NotificationService.getInstance().flushAll();
+        }));
+    }
+}
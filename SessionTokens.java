@@ -0,0 +1,78 @@
+package org.app.util;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bearer tokens for signed-in API clients of BUP UCAM Assignment Tracker
+ * A token is 32 random bytes in hex and maps to the user ID it was issued
+ * for. Tokens expire ttlMs after they were last used. They are held in
+ * memory only, so a server restart signs everyone out.
+ */
+public class SessionTokens {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int PRUNE_EVERY = 1024; // Issues between sweeps for abandoned tokens
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger issued = new AtomicInteger();
+    private final long ttlMs;
+
+    public SessionTokens(long ttlMs) {
+        if (ttlMs <= 0) {
+            throw new IllegalArgumentException("Session lifetime must be positive");
+        }
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Start a session for a user; returns its token
+     */
+    public String issue(String userId) {
+        if (issued.incrementAndGet() % PRUNE_EVERY == 0) {
+            long now = System.currentTimeMillis();
+            sessions.values().removeIf(session -> session.expiresAt <= now);
+        }
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+        sessions.put(token, new Session(userId, System.currentTimeMillis() + ttlMs));
+        return token;
+    }
+
+    /**
+     * The user a token was issued for, or null if it is unknown or expired
+     * Using a token pushes its expiry back by the full lifetime.
+     */
+    public String resolve(String token) {
+        Session session = token != null ? sessions.get(token) : null;
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (session.expiresAt <= now) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.expiresAt = now + ttlMs;
+        return session.userId;
+    }
+
+    public void revoke(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    private static final class Session {
+        private final String userId;
+        private volatile long expiresAt;
+
+        private Session(String userId, long expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.app.service;
+
+import org.app.util.EmailUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals of attachment bytes per student, course and assignment
+ * Counted once when data is loaded and then adjusted as attachments are
+ * added and leave the live data, so reading a total never touches the disk. Bytes are counted per
+ * reference: a file submitted twice counts twice, even though the store
+ * keeps one copy. An assignment's own files count towards it and its course.
+ * Quotas of 0 mean unlimited.
+ */
+public class StorageUsage {
+    private final Map<String, AtomicLong> byStudent = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> byCourse = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> byAssignment = new ConcurrentHashMap<>();
+    private final long studentQuota;
+    private final long courseQuota;
+
+    public StorageUsage() {
+        this(megabytes(EmailUtil.getConfig("quota.student.mb", "1024")),
+                megabytes(EmailUtil.getConfig("quota.course.mb", "51200")));
+    }
+
+    public StorageUsage(long studentQuota, long courseQuota) {
+        if (studentQuota < 0 || courseQuota < 0) {
+            throw new IllegalArgumentException("Quotas cannot be negative");
+        }
+        this.studentQuota = studentQuota;
+        this.courseQuota = courseQuota;
+    }
+
+    /**
+     * Fail if a submission of this many bytes would not fit; charges nothing
+     * Lets a submit be turned away before its files are copied into the store
+     */
+    public void checkRoom(String studentId, String courseId, long bytes) {
+        checkQuota("Student", get(byStudent, studentId), studentQuota, bytes);
+        checkQuota("Course", get(byCourse, courseId), courseQuota, bytes);
+    }
+
+    /**
+     * Count a submission's bytes if both quotas have room, otherwise fail with IllegalStateException
+     * The check and the update happen together, so concurrent submits cannot overshoot a quota
+     */
+    synchronized void charge(String studentId, String courseId, String assignmentId, long bytes) {
+        checkRoom(studentId, courseId, bytes);
+        add(studentId, courseId, assignmentId, bytes);
+    }
+
+    /**
+     * Count bytes without checking quotas, for data that already exists
+     * studentId is null for an assignment's own files
+     */
+    synchronized void add(String studentId, String courseId, String assignmentId, long bytes) {
+        if (bytes == 0) {
+            return;
+        }
+        if (studentId != null) {
+            byStudent.computeIfAbsent(studentId, k -> new AtomicLong()).addAndGet(bytes);
+        }
+        if (courseId != null) {
+            byCourse.computeIfAbsent(courseId, k -> new AtomicLong()).addAndGet(bytes);
+        }
+        if (assignmentId != null) {
+            byAssignment.computeIfAbsent(assignmentId, k -> new AtomicLong()).addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Stop counting bytes whose assignment or submission has left the live data
+     */
+    synchronized void release(String studentId, String courseId, String assignmentId, long bytes) {
+        add(studentId, courseId, assignmentId, -bytes);
+    }
+
+    public long getStudentBytes(String studentId) {
+        return get(byStudent, studentId);
+    }
+
+    public long getCourseBytes(String courseId) {
+        return get(byCourse, courseId);
+    }
+
+    public long getAssignmentBytes(String assignmentId) {
+        return get(byAssignment, assignmentId);
+    }
+
+    public long getStudentQuota() {
+        return studentQuota;
+    }
+
+    public long getCourseQuota() {
+        return courseQuota;
+    }
+
+    private static void checkQuota(String owner, long used, long quota, long bytes) {
+        if (quota > 0 && used + bytes > quota) {
+            throw new IllegalStateException(owner + " storage quota would be exceeded: " + toMegabytes(used) +
+                    " MB used + " + toMegabytes(bytes) + " MB of attachments > " + toMegabytes(quota) + " MB");
+        }
+    }
+
+    private static long get(Map<String, AtomicLong> totals, String key) {
+        AtomicLong total = key != null ? totals.get(key) : null;
+        return total != null ? total.get() : 0;
+    }
+
+    private static long megabytes(String value) {
+        return Long.parseLong(value) * 1024 * 1024;
+    }
+
+    private static String toMegabytes(long bytes) {
+        return String.format("%.1f", bytes / (1024.0 * 1024));
+    }
+}
@@ -0,0 +1,169 @@
+package org.app;
+
+import org.app.model.*;
+import org.app.service.AssignmentService;
+import org.app.service.CourseService;
+import org.app.service.ObjectGraphLinker;
+import org.app.service.UserService;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency stress check for the service layer
+ * Registers students, enrolls them, submits and grades from many virtual
+ * threads at once, then checks that no update was lost: every enrollment,
+ * submission and grade is present in memory and again after reloading the
+ * data files. Writes to ./data, so run it from an empty directory.
+ * Usage: StressCheck [students] [courses]   (default 200 students, 8 courses)
+ * Exits with status 1 if any check failed.
+ */
+public class StressCheck {
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        String[] existing = new File("data").list();
+        if (existing != null && existing.length > 0) {
+            System.err.println("✗ ./data is not empty; run StressCheck from an empty directory");
+            System.exit(2);
+        }
+
+        UserService userService = new UserService();
+        CourseService courseService = new CourseService();
+        AssignmentService assignmentService = new AssignmentService();
+        ObjectGraphLinker.link(userService, courseService, assignmentService);
+
+        Teacher teacher = userService.registerTeacher("Stress Teacher", "stress.teacher@bup.edu.bd",
+                "password", "CSE", "EMP-STRESS");
+        List<Course> courses = new ArrayList<>();
+        for (int c = 0; c < courseCount; c++) {
+            courses.add(courseService.createCourse("Stress Course " + c, "STR" + c, "CSE", 3, "Fall 2026", teacher));
+        }
+        long started = System.nanoTime();
+
+        // Every phase fans out one virtual thread per operation, so they all contend at once
+        List<Student> students = runAll(studentCount, i -> userService.registerStudent("Student " + i,
+                "stress" + i + "@bup.edu.bd", "password", "S" + i, "BSc CSE", 1));
+
+        runAll(studentCount * courseCount, i -> {
+            courseService.enrollStudent(courses.get(i % courseCount).getCourseId(), students.get(i / courseCount));
+            return null;
+        });
+
+        List<Assignment> assignments = runAll(courseCount, c -> assignmentService.createAssignment(
+                "Stress Assignment " + c, "Concurrency check", courses.get(c), teacher, AssignmentType.HOMEWORK,
+                100, LocalDateTime.now().plusDays(7)));
+
+        List<Submission> submissions = runAll(studentCount * courseCount, i -> assignmentService.submitAssignment(
+                assignments.get(i % courseCount), students.get(i / courseCount), "Answer " + i));
+
+        // Two graders race for each submission at the same version; exactly one must win
+        AtomicInteger gradeWins = new AtomicInteger();
+        runAll(submissions.size() * 2, i -> {
+            Submission submission = submissions.get(i / 2);
+            if (assignmentService.gradeSubmission(submission.getSubmissionId(), 50 + i % 2, "Graded",
+                    teacher, 0)) {
+                gradeWins.incrementAndGet();
+            }
+            return null;
+        });
+        System.out.printf("%n=== Stress Check: %d students x %d courses in %.1f ms ===%n",
+                studentCount, courseCount, (System.nanoTime() - started) / 1e6);
+
+        check("grading races with one winner each", gradeWins.get(), submissions.size());
+        System.out.println("-- In memory");
+        verify(userService, courseService, assignmentService, studentCount, courseCount);
+
+        System.out.println("-- Reloaded from data files");
+        UserService reloadedUsers = new UserService();
+        CourseService reloadedCourses = new CourseService();
+        AssignmentService reloadedAssignments = new AssignmentService();
+        ObjectGraphLinker.link(reloadedUsers, reloadedCourses, reloadedAssignments);
+        verify(reloadedUsers, reloadedCourses, reloadedAssignments, studentCount, courseCount);
+
+        System.out.println(failures == 0 ? "✓ No lost updates" : "✗ " + failures + " check(s) failed");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void verify(UserService userService, CourseService courseService,
+                               AssignmentService assignmentService, int studentCount, int courseCount) {
+        List<Student> students = userService.getAllStudents();
+        check("students", students.size(), studentCount);
+        check("distinct user IDs", distinct(userService.getAllStudents(), User::getUserId), studentCount);
+
+        for (Course course : courseService.getAllCourses()) {
+            check(course.getCourseCode() + " enrollments", course.getEnrolledStudents().size(), studentCount);
+        }
+
+        List<Submission> submissions = assignmentService.getAllSubmissions();
+        check("submissions", submissions.size(), studentCount * courseCount);
+        check("distinct submission IDs", distinct(submissions, Submission::getSubmissionId), submissions.size());
+        for (Assignment assignment : assignmentService.getAllAssignments()) {
+            check(assignment.getAssignmentId() + " submissions", assignment.getSubmissionCount(), studentCount);
+        }
+        int shortStudents = 0;
+        for (Student student : students) {
+            if (student.getSubmissions().size() != courseCount) {
+                shortStudents++;
+            }
+        }
+        check("students missing a submission", shortStudents, 0);
+
+        int ungraded = 0;
+        for (Submission submission : submissions) {
+            if (submission.getStatus() != SubmissionStatus.GRADED || submission.getVersion() != 1) {
+                ungraded++;
+            }
+        }
+        check("submissions not graded exactly once", ungraded, 0);
+    }
+
+    private static <T> int distinct(Collection<T> items, java.util.function.Function<T, String> id) {
+        Set<String> ids = new HashSet<>();
+        for (T item : items) {
+            ids.add(id.apply(item));
+        }
+        return ids.size();
+    }
+
+    private static void check(String what, int actual, int expected) {
+        if (actual == expected) {
+            System.out.println("✓ " + what + ": " + actual);
+        } else {
+            System.out.println("✗ " + what + ": " + actual + " (expected " + expected + ")");
+            failures++;
+        }
+    }
+
+    /**
+     * Run count operations on their own virtual threads and return the results in index order
+     */
+    private static <T> List<T> runAll(int count, IndexedTask<T> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>(count);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.run(index);
+                }));
+            }
+            start.countDown();
+        }
+        List<T> results = new ArrayList<>(count);
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private interface IndexedTask<T> {
+        T run(int index) throws Exception;
+    }
+}
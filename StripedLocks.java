@@ -0,0 +1,41 @@
+package org.app.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks for BUP UCAM Assignment Tracker
+ * Keys (such as course IDs) are hashed onto a stripe so that work on
+ * different keys can proceed in parallel without one lock per entity
+ */
+public class StripedLocks {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] locks;
+
+    public StripedLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public StripedLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Get the lock guarding the given key
+     */
+    public ReentrantLock lockFor(String key) {
+        int hash = key != null ? key.hashCode() : 0;
+        hash ^= (hash >>> 16); // Spread high bits so sequential IDs land on different stripes
+        return locks[Math.floorMod(hash, locks.length)];
+    }
+
+    public int getStripeCount() {
+        return locks.length;
+    }
+}
@@ -3,6 +3,7 @@ package org.app.model;
 import com.fasterxml.jackson.annotation.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Student class for BUP UCAM Assignment Tracker
@@ -18,21 +19,21 @@ public class Student extends User {
 
     // Remove JsonIgnore to allow serialization of these collections
     @JsonProperty("enrolledCourseIds")
-    private List<String> enrolledCourseIds = new ArrayList<>(); // Store course IDs instead of Course objects
+    private CopyOnWriteArrayList<String> enrolledCourseIds = new CopyOnWriteArrayList<>(); // Store course IDs instead of Course objects
 
     @JsonProperty("submissionIds")
-    private List<String> submissionIds = new ArrayList<>(); // Store submission IDs instead of Submission objects
+    private CopyOnWriteArrayList<String> submissionIds = new CopyOnWriteArrayList<>(); // Store submission IDs instead of Submission objects
 
     @JsonIgnore
-    private List<Course> enrolledCourses;
+    private CopyOnWriteArrayList<Course> enrolledCourses;
     @JsonIgnore
-    private List<Submission> submissions;
+    private CopyOnWriteArrayList<Submission> submissions;
 
     // Default constructor for Jackson
     public Student() {
         super();
-        this.enrolledCourses = new ArrayList<>();
-        this.submissions = new ArrayList<>();
+        this.enrolledCourses = new CopyOnWriteArrayList<>();
+        this.submissions = new CopyOnWriteArrayList<>();
     }
 
     public Student(String userId, String name, String email, String password,
@@ -41,10 +42,10 @@ public class Student extends User {
         this.studentId = studentId;
         this.program = program;
         this.semester = semester;
-        this.enrolledCourses = new ArrayList<>();
-        this.submissions = new ArrayList<>();
-        this.enrolledCourseIds = new ArrayList<>();
-        this.submissionIds = new ArrayList<>();
+        this.enrolledCourses = new CopyOnWriteArrayList<>();
+        this.submissions = new CopyOnWriteArrayList<>();
+        this.enrolledCourseIds = new CopyOnWriteArrayList<>();
+        this.submissionIds = new CopyOnWriteArrayList<>();
     }
 
     public void displayDashboard() {
@@ -61,20 +62,14 @@ public class Student extends User {
     }
 
     public void enrollInCourse(Course course) {
-        if (!enrolledCourses.contains(course)) {
-            enrolledCourses.add(course);
-            if (!enrolledCourseIds.contains(course.getCourseId())) {
-                enrolledCourseIds.add(course.getCourseId());
-            }
+        if (enrolledCourses.addIfAbsent(course)) {
+            enrolledCourseIds.addIfAbsent(course.getCourseId());
         }
     }
 
     public void addSubmission(Submission submission) {
-        if (!submissions.contains(submission)) {
-            submissions.add(submission);
-            if (!submissionIds.contains(submission.getSubmissionId())) {
-                submissionIds.add(submission.getSubmissionId());
-            }
+        if (submissions.addIfAbsent(submission)) {
+            submissionIds.addIfAbsent(submission.getSubmissionId());
         }
     }
 
@@ -84,7 +79,7 @@ public class Student extends User {
     }
 
     public void setEnrolledCourseIds(List<String> enrolledCourseIds) {
-        this.enrolledCourseIds = enrolledCourseIds;
+        this.enrolledCourseIds = enrolledCourseIds != null ? new CopyOnWriteArrayList<>(enrolledCourseIds) : new CopyOnWriteArrayList<>();
     }
 
     public List<String> getSubmissionIds() {
@@ -92,7 +87,7 @@ public class Student extends User {
     }
 
     public void setSubmissionIds(List<String> submissionIds) {
-        this.submissionIds = submissionIds;
+        this.submissionIds = submissionIds != null ? new CopyOnWriteArrayList<>(submissionIds) : new CopyOnWriteArrayList<>();
     }
 
     // Getters and Setters
@@ -109,25 +104,22 @@ public class Student extends User {
 
     public List<Submission> getSubmissions() { return new ArrayList<>(submissions); }
 
-    // Add methods to directly manipulate the enrolled courses list for restoration
-    public void clearEnrolledCourses() {
-        this.enrolledCourses.clear();
-    }
-
-    public void addEnrolledCourse(Course course) {
-        if (!enrolledCourses.contains(course)) {
-            enrolledCourses.add(course);
+    // Replace the collections in one step (used when linking loaded data)
+    public void setEnrolledCourses(List<Course> courses) {
+        this.enrolledCourses = new CopyOnWriteArrayList<>(courses);
+        List<String> ids = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            ids.add(course.getCourseId());
         }
+        this.enrolledCourseIds = new CopyOnWriteArrayList<>(ids);
     }
 
-    // Add methods to directly manipulate the submissions list for restoration
-    public void clearSubmissions() {
-        this.submissions.clear();
-    }
-
-    public void addSubmissionDirect(Submission submission) {
-        if (!submissions.contains(submission)) {
-            submissions.add(submission);
+    public void setSubmissions(List<Submission> submissions) {
+        this.submissions = new CopyOnWriteArrayList<>(submissions);
+        List<String> ids = new ArrayList<>(submissions.size());
+        for (Submission submission : submissions) {
+            ids.add(submission.getSubmissionId());
         }
+        this.submissionIds = new CopyOnWriteArrayList<>(ids);
     }
 }
@@ -2,13 +2,13 @@ package org.app.gui;
 
 import org.app.model.*;
 import org.app.service.AssignmentService;
+import org.app.util.AttachmentStore;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
-import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -83,7 +83,7 @@ public class StudentAssignmentDialog extends JDialog {
         // Check if student has already submitted
         List<Submission> studentSubmissions = assignmentService.getSubmissionsByStudent(student);
         boolean hasSubmitted = studentSubmissions.stream()
-                .anyMatch(sub -> sub.getAssignment().equals(assignment));
+                .anyMatch(sub -> assignment.equals(sub.getAssignment()));
 
         if (hasSubmitted) {
             submitAssignmentButton.setText("Already Submitted");
@@ -188,14 +188,14 @@ public class StudentAssignmentDialog extends JDialog {
         descriptionArea.setText(assignment.getDescription());
 
         // Load attachments
-        List<String> attachments = assignment.getAttachmentPaths();
+        List<Attachment> attachments = assignment.getAttachments();
+        AttachmentStore store = AttachmentStore.getInstance();
         attachmentsModel.clear();
-        for (String filePath : attachments) {
-            File file = new File(filePath);
-            if (file.exists()) {
-                attachmentsModel.addElement(file.getName());
+        for (Attachment attachment : attachments) {
+            if (store.contains(attachment)) {
+                attachmentsModel.addElement(attachment.getFileName());
             } else {
-                attachmentsModel.addElement(file.getName() + " (File not found)");
+                attachmentsModel.addElement(attachment.getFileName() + " (File not found)");
             }
         }
     }
@@ -203,21 +203,14 @@ public class StudentAssignmentDialog extends JDialog {
     private void viewSelectedFile() {
         int selectedIndex = attachmentsList.getSelectedIndex();
         if (selectedIndex != -1) {
-            String filePath = assignment.getAttachmentPaths().get(selectedIndex);
-            File file = new File(filePath);
-
-            if (file.exists()) {
-                try {
-                    Desktop.getDesktop().open(file);
-                } catch (IOException e) {
-                    JOptionPane.showMessageDialog(this,
-                        "Cannot open file: " + e.getMessage(),
-                        "File Open Error",
-                        JOptionPane.ERROR_MESSAGE);
-                }
+            Attachment attachment = assignment.getAttachments().get(selectedIndex);
+            AttachmentStore store = AttachmentStore.getInstance();
+
+            if (store.contains(attachment)) {
+                TransferProgressDialog.open(this, attachment);
             } else {
                 JOptionPane.showMessageDialog(this,
-                    "File not found: " + file.getName(),
+                    "File not found: " + attachment.getFileName(),
                     "File Not Found",
                     JOptionPane.ERROR_MESSAGE);
             }
@@ -227,34 +220,23 @@ public class StudentAssignmentDialog extends JDialog {
     private void downloadSelectedFile() {
         int selectedIndex = attachmentsList.getSelectedIndex();
         if (selectedIndex != -1) {
-            String filePath = assignment.getAttachmentPaths().get(selectedIndex);
-            File sourceFile = new File(filePath);
+            Attachment attachment = assignment.getAttachments().get(selectedIndex);
+            AttachmentStore store = AttachmentStore.getInstance();
 
-            if (sourceFile.exists()) {
+            if (store.contains(attachment)) {
                 JFileChooser fileChooser = new JFileChooser();
                 fileChooser.setDialogTitle("Save File As");
-                fileChooser.setSelectedFile(new File(sourceFile.getName()));
+                fileChooser.setSelectedFile(new File(attachment.getFileName()));
 
                 int result = fileChooser.showSaveDialog(this);
                 if (result == JFileChooser.APPROVE_OPTION) {
                     File destinationFile = fileChooser.getSelectedFile();
-                    try {
-                        java.nio.file.Files.copy(sourceFile.toPath(), destinationFile.toPath(),
-                            java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                        JOptionPane.showMessageDialog(this,
-                            "File downloaded successfully!",
-                            "Download Complete",
-                            JOptionPane.INFORMATION_MESSAGE);
-                    } catch (IOException e) {
-                        JOptionPane.showMessageDialog(this,
-                            "Error downloading file: " + e.getMessage(),
-                            "Download Error",
-                            JOptionPane.ERROR_MESSAGE);
-                    }
+                    // Copies in the background; this dialog stays usable meanwhile
+                    TransferProgressDialog.download(this, attachment, destinationFile.toPath());
                 }
             } else {
                 JOptionPane.showMessageDialog(this,
-                    "File not found: " + sourceFile.getName(),
+                    "File not found: " + attachment.getFileName(),
                     "File Not Found",
                     JOptionPane.ERROR_MESSAGE);
             }
@@ -4,15 +4,19 @@ import org.app.model.*;
 import org.app.service.*;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Student Dashboard GUI for BUP UCAM Assignment Tracker (Tabbed UI version)
  */
 public class StudentDashboard extends JPanel {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+
     private Student student;
     private UserService userService;
     private CourseService courseService;
@@ -20,10 +24,17 @@ public class StudentDashboard extends JPanel {
     private AssignmentTrackerGUI mainFrame;
 
     private JTabbedPane tabbedPane;
-    private DefaultTableModel coursesTableModel;
-    private DefaultTableModel assignmentsTableModel;
-    private DefaultTableModel submissionsTableModel;
-    private DefaultTableModel gradesTableModel;
+    private EntityTableModel<Course> coursesTableModel;
+    private EntityTableModel<Assignment> assignmentsTableModel;
+    private EntityTableModel<Submission> submissionsTableModel;
+    private EntityTableModel<Submission> gradesTableModel;
+    private Set<String> submittedAssignmentIds = new HashSet<>(); // Drives the assignments "Status" column
+    private final JLabel coursesCountLabel = new JLabel("-");
+    private final JLabel assignmentsCountLabel = new JLabel("-");
+    private final JLabel submissionsCountLabel = new JLabel("-");
+    private final JLabel gradedCountLabel = new JLabel("-");
+    private final BackgroundTasks tasks = new BackgroundTasks();
+    private final DomainEventBus.Subscription eventSubscription;
 
     public StudentDashboard(Student student, UserService userService,
                             CourseService courseService, AssignmentService assignmentService,
@@ -35,9 +46,55 @@ public class StudentDashboard extends JPanel {
         this.mainFrame = mainFrame;
 
         initializeComponents();
+        // Subscribe before the first load so nothing published in between is missed
+        eventSubscription = DomainEventBus.getInstance().subscribe(this::applyEvents, SwingUtilities::invokeLater);
         refreshData();
     }
 
+    /**
+     * Stop receiving live updates; called when the dashboard is discarded
+     */
+    void close() {
+        eventSubscription.cancel();
+    }
+
+    /**
+     * Apply changes that concern this student to the tabs, touching only the affected rows
+     */
+    private void applyEvents(List<DomainEvent> batch) {
+        String me = student.getUserId();
+        for (DomainEvent event : batch) {
+            if (event instanceof DomainEvent.AssignmentCreated) {
+                Assignment assignment = ((DomainEvent.AssignmentCreated) event).getAssignment();
+                if (coursesTableModel.indexOf(assignment.getCourseId()) >= 0) {
+                    assignmentsTableModel.upsert(assignment);
+                }
+            } else if (event instanceof DomainEvent.SubmissionCreated) {
+                Submission submission = ((DomainEvent.SubmissionCreated) event).getSubmission();
+                if (me.equals(submission.getStudentUserId())) {
+                    submittedAssignmentIds.add(submission.getAssignmentId());
+                    submissionsTableModel.upsert(submission);
+                    assignmentsTableModel.upsert(submission.getAssignment()); // Status column
+                }
+            } else if (event instanceof DomainEvent.SubmissionGraded) {
+                Submission submission = ((DomainEvent.SubmissionGraded) event).getSubmission();
+                if (me.equals(submission.getStudentUserId())) {
+                    submissionsTableModel.upsert(submission);
+                    gradesTableModel.upsert(submission);
+                }
+            } else if (event instanceof DomainEvent.StudentEnrolled) {
+                DomainEvent.StudentEnrolled enrolled = (DomainEvent.StudentEnrolled) event;
+                if (me.equals(enrolled.getStudent().getUserId())) {
+                    coursesTableModel.upsert(enrolled.getCourse());
+                    for (Assignment assignment : assignmentService.getCourseSnapshot(enrolled.getCourse()).getAssignments()) {
+                        assignmentsTableModel.upsert(assignment);
+                    }
+                }
+            }
+        }
+        showCounts();
+    }
+
     private void initializeComponents() {
         setLayout(new BorderLayout());
 
@@ -52,6 +109,7 @@ public class StudentDashboard extends JPanel {
         tabbedPane.addTab("Grades", createGradesPanel());
 
         add(tabbedPane, BorderLayout.CENTER);
+        add(tasks.getProgressBar(), BorderLayout.SOUTH);
     }
 
     private JPanel createHeaderPanel() {
@@ -95,20 +153,16 @@ public class StudentDashboard extends JPanel {
         panel.setBackground(new Color(245, 245, 245));
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
-        List<Course> courses = courseService.getCoursesForStudent(student);
-        List<Submission> submissions = assignmentService.getSubmissionsByStudent(student);
-        int assignmentCount = courses.stream().mapToInt(c -> assignmentService.getAssignmentsByCourse(c).size()).sum();
-        long gradedCount = submissions.stream().filter(s -> s.getStatus() == SubmissionStatus.GRADED).count();
-
-        panel.add(createStatCard("Courses", courses.size(), new Color(65, 161, 237)));
-        panel.add(createStatCard("Assignments", assignmentCount, new Color(178, 100, 230)));
-        panel.add(createStatCard("Submissions", submissions.size(), new Color(175, 38, 73)));
-        panel.add(createStatCard("Graded", gradedCount, new Color(55, 161, 80)));
+        // Values are filled in by refreshData once loaded
+        panel.add(createStatCard("Courses", coursesCountLabel, new Color(65, 161, 237)));
+        panel.add(createStatCard("Assignments", assignmentsCountLabel, new Color(178, 100, 230)));
+        panel.add(createStatCard("Submissions", submissionsCountLabel, new Color(175, 38, 73)));
+        panel.add(createStatCard("Graded", gradedCountLabel, new Color(55, 161, 80)));
 
         return panel;
     }
 
-    private JPanel createStatCard(String title, long value, Color color) {
+    private JPanel createStatCard(String title, JLabel valueLabel, Color color) {
         JPanel card = new JPanel();
         card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
         card.setBackground(color);
@@ -127,7 +181,6 @@ public class StudentDashboard extends JPanel {
         titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 5, 0));
 
-        JLabel valueLabel = new JLabel(String.valueOf(value));
         valueLabel.setFont(new Font("Arial", Font.BOLD, 28));
         valueLabel.setForeground(Color.WHITE);
         valueLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -151,7 +204,12 @@ public class StudentDashboard extends JPanel {
         JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
         toolbar.add(enrollBtn);
 
-        coursesTableModel = new DefaultTableModel(new String[]{"Course Code", "Name", "Instructor", "Credits", "Dept"}, 0);
+        coursesTableModel = new EntityTableModel<>(Course::getCourseId,
+                EntityTableModel.column("Course Code", Course::getCourseCode),
+                EntityTableModel.column("Name", Course::getCourseName),
+                EntityTableModel.column("Instructor", c -> c.getInstructor() != null ? c.getInstructor().getName() : "N/A"),
+                EntityTableModel.column("Credits", Course::getCreditHours),
+                EntityTableModel.column("Dept", Course::getDepartment));
         JTable table = new JTable(coursesTableModel);
         panel.add(toolbar, BorderLayout.NORTH);
         panel.add(new JScrollPane(table), BorderLayout.CENTER);
@@ -169,7 +227,13 @@ public class StudentDashboard extends JPanel {
         JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
         toolbar.add(submitBtn);
 
-        assignmentsTableModel = new DefaultTableModel(new String[]{"Title", "Course", "Type", "Due Date", "Max Marks", "Status"}, 0);
+        assignmentsTableModel = new EntityTableModel<>(Assignment::getAssignmentId,
+                EntityTableModel.column("Title", Assignment::getTitle),
+                EntityTableModel.column("Course", a -> a.getCourse().getCourseCode()),
+                EntityTableModel.column("Type", Assignment::getType),
+                EntityTableModel.column("Due Date", a -> a.getDueDate().format(DATE_FORMAT)),
+                EntityTableModel.column("Max Marks", Assignment::getMaxMarks),
+                EntityTableModel.column("Status", a -> submittedAssignmentIds.contains(a.getAssignmentId()) ? "Submitted" : "Pending"));
         JTable table = new JTable(assignmentsTableModel);
 
         panel.add(toolbar, BorderLayout.NORTH);
@@ -180,7 +244,12 @@ public class StudentDashboard extends JPanel {
     private JPanel createSubmissionsPanel() {
         JPanel panel = new JPanel(new BorderLayout());
 
-        submissionsTableModel = new DefaultTableModel(new String[]{"Assignment", "Course", "Submitted At", "Status", "Late"}, 0);
+        submissionsTableModel = new EntityTableModel<>(Submission::getSubmissionId,
+                EntityTableModel.column("Assignment", s -> s.getAssignment().getTitle()),
+                EntityTableModel.column("Course", s -> s.getAssignment().getCourse().getCourseCode()),
+                EntityTableModel.column("Submitted At", s -> s.getSubmittedAt().format(DATE_FORMAT)),
+                EntityTableModel.column("Status", Submission::getStatus),
+                EntityTableModel.column("Late", s -> s.isLateSubmission() ? "Yes" : "No"));
         JTable table = new JTable(submissionsTableModel);
 
         panel.add(new JScrollPane(table), BorderLayout.CENTER);
@@ -190,7 +259,13 @@ public class StudentDashboard extends JPanel {
     private JPanel createGradesPanel() {
         JPanel panel = new JPanel(new BorderLayout());
 
-        gradesTableModel = new DefaultTableModel(new String[]{"Assignment", "Course", "Marks", "Max", "%", "Feedback"}, 0);
+        gradesTableModel = new EntityTableModel<>(Submission::getSubmissionId,
+                EntityTableModel.column("Assignment", s -> s.getAssignment().getTitle()),
+                EntityTableModel.column("Course", s -> s.getAssignment().getCourse().getCourseCode()),
+                EntityTableModel.column("Marks", Submission::getMarks),
+                EntityTableModel.column("Max", s -> s.getAssignment().getMaxMarks()),
+                EntityTableModel.column("%", s -> String.format("%.1f%%", (s.getMarks() * 100.0) / s.getAssignment().getMaxMarks())),
+                EntityTableModel.column("Feedback", s -> s.getFeedback() == null ? "N/A" : s.getFeedback()));
         JTable table = new JTable(gradesTableModel);
         panel.add(new JScrollPane(table), BorderLayout.CENTER);
 
@@ -204,72 +279,60 @@ public class StudentDashboard extends JPanel {
     }
 
     private void showSubmitAssignmentDialog() {
-        List<Course> enrolled = courseService.getCoursesForStudent(student);
-        if (enrolled.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "You are not enrolled in any courses.", "Error", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-        SubmitAssignmentDialog dialog = new SubmitAssignmentDialog(mainFrame, student, enrolled, assignmentService);
-        dialog.setVisible(true);
-        refreshData();
+        tasks.run("Loading courses...", () -> courseService.getCoursesForStudent(student), enrolled -> {
+            if (enrolled.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "You are not enrolled in any courses.", "Error", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            SubmitAssignmentDialog dialog = new SubmitAssignmentDialog(mainFrame, student, enrolled, assignmentService);
+            dialog.setVisible(true);
+            refreshData();
+        });
     }
 
-    private void refreshData() {
-        refreshCoursesTable();
-        refreshAssignmentsTable();
-        refreshSubmissionsTable();
-        refreshGradesTable();
+    void refreshData() {
+        tasks.run("Loading your courses and assignments...", this::loadData, this::showData);
     }
 
-    private void refreshCoursesTable() {
-        coursesTableModel.setRowCount(0);
-        for (Course c : courseService.getCoursesForStudent(student)) {
-            coursesTableModel.addRow(new Object[]{
-                    c.getCourseCode(), c.getCourseName(), c.getInstructor().getName(), c.getCreditHours(), c.getDepartment()
-            });
-        }
+    /**
+     * Fetch everything the tabs show; runs off the EDT
+     */
+    private StudentData loadData() {
+        StudentData data = new StudentData();
+        data.courses = courseService.getCoursesForStudent(student);
+        data.assignments = data.courses.stream()
+                .flatMap(c -> assignmentService.getCourseSnapshot(c).getAssignments().stream())
+                .collect(Collectors.toList());
+        data.submissions = assignmentService.getSubmissionsByStudent(student);
+        return data;
     }
 
-    private void refreshAssignmentsTable() {
-        assignmentsTableModel.setRowCount(0);
-        List<Submission> submissions = assignmentService.getSubmissionsByStudent(student);
-        for (Course c : courseService.getCoursesForStudent(student)) {
-            for (Assignment a : assignmentService.getAssignmentsByCourse(c)) {
-                boolean submitted = submissions.stream().anyMatch(s -> s.getAssignment().equals(a));
-                assignmentsTableModel.addRow(new Object[]{
-                        a.getTitle(), c.getCourseCode(), a.getType(),
-                        a.getDueDate().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")),
-                        a.getMaxMarks(), submitted ? "Submitted" : "Pending"
-                });
-            }
-        }
+    private void showData(StudentData data) {
+        submittedAssignmentIds = data.submissions.stream()
+                .map(Submission::getAssignmentId)
+                .collect(Collectors.toSet());
+        List<Submission> graded = data.submissions.stream()
+                .filter(s -> s.getStatus() == SubmissionStatus.GRADED)
+                .collect(Collectors.toList());
+
+        coursesTableModel.sync(data.courses);
+        assignmentsTableModel.sync(data.assignments);
+        submissionsTableModel.sync(data.submissions);
+        gradesTableModel.sync(graded);
+
+        showCounts();
     }
 
-    private void refreshSubmissionsTable() {
-        submissionsTableModel.setRowCount(0);
-        for (Submission s : assignmentService.getSubmissionsByStudent(student)) {
-            submissionsTableModel.addRow(new Object[]{
-                    s.getAssignment().getTitle(),
-                    s.getAssignment().getCourse().getCourseCode(),
-                    s.getSubmittedAt().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")),
-                    s.getStatus(),
-                    s.isLateSubmission() ? "Yes" : "No"
-            });
-        }
+    private void showCounts() {
+        coursesCountLabel.setText(String.valueOf(coursesTableModel.getRowCount()));
+        assignmentsCountLabel.setText(String.valueOf(assignmentsTableModel.getRowCount()));
+        submissionsCountLabel.setText(String.valueOf(submissionsTableModel.getRowCount()));
+        gradedCountLabel.setText(String.valueOf(gradesTableModel.getRowCount()));
     }
 
-    private void refreshGradesTable() {
-        gradesTableModel.setRowCount(0);
-        for (Submission s : assignmentService.getSubmissionsByStudent(student)) {
-            if (s.getStatus() == SubmissionStatus.GRADED) {
-                Assignment a = s.getAssignment();
-                double percent = (s.getMarks() * 100.0) / a.getMaxMarks();
-                gradesTableModel.addRow(new Object[]{
-                        a.getTitle(), a.getCourse().getCourseCode(),
-                        s.getMarks(), a.getMaxMarks(), String.format("%.1f%%", percent),
-                        s.getFeedback() == null ? "N/A" : s.getFeedback()
-                });
-            }
-        }
+    private static class StudentData {
+        private List<Course> courses;
+        private List<Assignment> assignments;
+        private List<Submission> submissions;
     }
 }
@@ -3,73 +3,103 @@ package org.app.model;
 import com.fasterxml.jackson.annotation.*;
 import java.time.LocalDateTime;
 
-
-import java.io.File;
-
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Submission class for BUP UCAM Assignment Tracker
  */
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "submissionId")
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class Submission {
     private String submissionId;
 
-    @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "assignmentId")
-    @JsonIdentityReference(alwaysAsId = true)
+    @JsonIgnore
     private Assignment assignment;
-
+    @JsonIgnore
     private Student student;
+    private String assignmentId; // Persisted in place of the assignment; resolved by ObjectGraphLinker
+    private String studentUserId; // Persisted in place of the student
     private String content;
-    private List<String> attachmentPaths;
+    private CopyOnWriteArrayList<Attachment> attachments; // Content lives in the attachment store
+    @JsonIgnore
+    private List<String> legacyAttachmentPaths = new ArrayList<>();
     private LocalDateTime submittedAt;
     private SubmissionStatus status;
     private Integer marks;
     private String feedback;
     private LocalDateTime gradedAt;
+    @JsonIgnore
     private Teacher gradedBy;
+    private String gradedById;
+    private volatile long version; // Bumped on every grade so concurrent graders can detect conflicts
+
+    // Default constructor for Jackson
+    public Submission() {
+        this.attachments = new CopyOnWriteArrayList<>();
+        this.submittedAt = LocalDateTime.now();
+        this.status = SubmissionStatus.SUBMITTED;
+    }
 
     public Submission(String submissionId, Assignment assignment, Student student, String content) {
+        this();
         this.submissionId = submissionId;
         this.assignment = assignment;
+        this.assignmentId = assignment != null ? assignment.getAssignmentId() : null;
         this.student = student;
+        this.studentUserId = student != null ? student.getUserId() : null;
         this.content = content;
-        this.attachmentPaths = new ArrayList<>();
-        this.submittedAt = LocalDateTime.now();
-        this.status = SubmissionStatus.SUBMITTED;
     }
 
-    public void addAttachment(String filePath) {
-        if (!attachmentPaths.contains(filePath)) {
-            attachmentPaths.add(filePath);
-        }
+    public void addAttachment(Attachment attachment) {
+        attachments.addIfAbsent(attachment);
     }
 
-    public File getFile() {
-        if (attachmentPaths != null && !attachmentPaths.isEmpty()) {
-            return new File(attachmentPaths.get(0));
-        }
-        return null;
+    public synchronized void grade(int marks, String feedback, Teacher gradedBy) {
+        this.marks = marks;
+        this.feedback = feedback;
+        setGradedBy(gradedBy);
+        this.gradedAt = LocalDateTime.now();
+        this.status = SubmissionStatus.GRADED;
+        this.version++;
     }
 
-    public List<File> getAllFiles() {
-        List<File> files = new ArrayList<>();
-        for (String path : attachmentPaths) {
-            files.add(new File(path));
+    /**
+     * Grade only if nobody has graded since expectedVersion was read
+     * Returns false for a stale update, leaving the submission unchanged
+     */
+    public synchronized boolean gradeIfVersion(long expectedVersion, int marks, String feedback, Teacher gradedBy) {
+        if (version != expectedVersion) {
+            return false;
         }
-        return files;
+        grade(marks, feedback, gradedBy);
+        return true;
     }
 
-    public void grade(int marks, String feedback, Teacher gradedBy) {
-        this.marks = marks;
-        this.feedback = feedback;
-        this.gradedBy = gradedBy;
-        this.gradedAt = LocalDateTime.now();
-        this.status = SubmissionStatus.GRADED;
+    /**
+     * A detached copy of the persisted fields, read under the lock grade() holds
+     * The save writer serializes this, so a grade is written whole or not at all
+     */
+    public synchronized Submission copyForSave() {
+        Submission copy = new Submission();
+        copy.submissionId = submissionId;
+        copy.assignmentId = assignmentId;
+        copy.studentUserId = studentUserId;
+        copy.content = content;
+        copy.attachments = attachments;
+        copy.submittedAt = submittedAt;
+        copy.status = status;
+        copy.marks = marks;
+        copy.feedback = feedback;
+        copy.gradedAt = gradedAt;
+        copy.gradedById = gradedById;
+        copy.version = version;
+        return copy;
     }
 
+    @JsonIgnore
     public boolean isLateSubmission() {
         return submittedAt.isAfter(assignment.getDueDate());
     }
@@ -94,15 +124,42 @@ public class Submission {
     public void setSubmissionId(String submissionId) { this.submissionId = submissionId; }
 
     public Assignment getAssignment() { return assignment; }
-    public void setAssignment(Assignment assignment) { this.assignment = assignment; }
+    public void setAssignment(Assignment assignment) {
+        this.assignment = assignment;
+        this.assignmentId = assignment != null ? assignment.getAssignmentId() : null;
+    }
+
+    public String getAssignmentId() { return assignmentId; }
+    public void setAssignmentId(String assignmentId) { this.assignmentId = assignmentId; }
 
     public Student getStudent() { return student; }
-    public void setStudent(Student student) { this.student = student; }
+    public void setStudent(Student student) {
+        this.student = student;
+        this.studentUserId = student != null ? student.getUserId() : null;
+    }
+
+    public String getStudentUserId() { return studentUserId; }
+    public void setStudentUserId(String studentUserId) { this.studentUserId = studentUserId; }
 
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
 
-    public List<String> getAttachmentPaths() { return new ArrayList<>(attachmentPaths); }
+    public List<Attachment> getAttachments() { return new ArrayList<>(attachments); }
+    public void setAttachments(List<Attachment> attachments) {
+        this.attachments = attachments != null ? new CopyOnWriteArrayList<>(attachments) : new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Local file paths saved by older versions, before attachments were stored
+     * Read-only in JSON; AssignmentService moves them into the store on load
+     */
+    @JsonProperty(value = "attachmentPaths", access = JsonProperty.Access.WRITE_ONLY)
+    public void setLegacyAttachmentPaths(List<String> paths) {
+        this.legacyAttachmentPaths = paths != null ? new ArrayList<>(paths) : new ArrayList<>();
+    }
+
+    @JsonIgnore
+    public List<String> getLegacyAttachmentPaths() { return legacyAttachmentPaths; }
 
     public LocalDateTime getSubmittedAt() { return submittedAt; }
     public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
@@ -120,7 +177,16 @@ public class Submission {
     public void setGradedAt(LocalDateTime gradedAt) { this.gradedAt = gradedAt; }
 
     public Teacher getGradedBy() { return gradedBy; }
-    public void setGradedBy(Teacher gradedBy) { this.gradedBy = gradedBy; }
+    public void setGradedBy(Teacher gradedBy) {
+        this.gradedBy = gradedBy;
+        this.gradedById = gradedBy != null ? gradedBy.getUserId() : null;
+    }
+
+    public String getGradedById() { return gradedById; }
+    public void setGradedById(String gradedById) { this.gradedById = gradedById; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 
     @Override
     public boolean equals(Object o) {
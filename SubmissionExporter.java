@@ -0,0 +1,272 @@
+package org.app.service;
+
+import org.app.model.*;
+import org.app.util.AttachmentStore;
+import org.app.util.TransferService;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bundles every submission for an assignment into one ZIP archive for offline grading
+ * Each student gets a folder named by their student ID, holding
+ * submission.txt (details, grade and submitted text) and their attachments.
+ * Entries are streamed one at a time, so memory stays bounded however big
+ * the archive grows: while one attachment is compressed, the next few are
+ * read from disk in parallel into small fixed-size buffers.
+ */
+public class SubmissionExporter {
+    private static final int READ_AHEAD = 4; // Attachments being read while one is written
+    private static final int CHUNK_BYTES = 1024 * 1024;
+    private static final int CHUNKS_PER_ENTRY = 4; // Buffered at most READ_AHEAD * CHUNKS_PER_ENTRY MB
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L;
+    private static final byte[] END = new byte[0];
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+
+    private final AssignmentService assignmentService;
+    private final AttachmentStore attachmentStore = AttachmentStore.getInstance();
+
+    public SubmissionExporter(AssignmentService assignmentService) {
+        this.assignmentService = assignmentService;
+    }
+
+    /**
+     * Start writing the archive for an assignment on the transfer pool
+     * The archive only appears at zipFile once it is complete
+     */
+    public TransferService.Transfer exportAssignment(Assignment assignment, Path zipFile,
+                                                     TransferService.ProgressListener listener) {
+        return TransferService.getInstance().submit(
+                (progress, cancelled) -> write(planEntries(assignment), zipFile, progress, cancelled), listener);
+    }
+
+    /**
+     * Lay out the archive: one folder per student, and one subfolder per
+     * submission for students who submitted more than once
+     */
+    private List<ArchiveEntry> planEntries(Assignment assignment) {
+        Map<String, List<Submission>> byStudent = new TreeMap<>();
+        for (Submission submission : assignmentService.getSubmissionsForAssignment(assignment)) {
+            byStudent.computeIfAbsent(folderName(submission), k -> new ArrayList<>()).add(submission);
+        }
+
+        List<ArchiveEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, List<Submission>> student : byStudent.entrySet()) {
+            List<Submission> submissions = student.getValue();
+            submissions.sort(Comparator.comparing(Submission::getSubmittedAt));
+            for (Submission submission : submissions) {
+                String folder = student.getKey() + "/" +
+                        (submissions.size() > 1 ? safeName(submission.getSubmissionId()) + "/" : "");
+                Set<String> used = new HashSet<>();
+                used.add("submission.txt");
+                List<String> missing = new ArrayList<>();
+                for (Attachment attachment : submission.getAttachments()) {
+                    if (attachmentStore.contains(attachment)) {
+                        entries.add(ArchiveEntry.forAttachment(folder + uniqueName(safeName(attachment.getFileName()), used),
+                                attachment));
+                    } else {
+                        missing.add(attachment.getFileName());
+                    }
+                }
+                entries.add(ArchiveEntry.forText(folder + "submission.txt", describe(submission, missing)));
+            }
+        }
+        return entries;
+    }
+
+    private Path write(List<ArchiveEntry> entries, Path zipFile, TransferService.ProgressListener listener,
+                       BooleanSupplier cancelled) throws IOException {
+        long total = 0;
+        for (ArchiveEntry entry : entries) {
+            total += entry.size;
+        }
+
+        Path dir = zipFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path partial = Files.createTempFile(dir, "." + zipFile.getFileName(), ".part");
+        ExecutorService readers = Executors.newFixedThreadPool(READ_AHEAD, r -> {
+            Thread thread = new Thread(r, "export-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (ZipOutputStream zip = new ZipOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(partial), CHUNK_BYTES))) {
+            zip.setLevel(Deflater.BEST_SPEED); // Most attachments are already compressed
+
+            for (int i = 0; i < Math.min(READ_AHEAD, entries.size()); i++) {
+                startReading(entries.get(i), readers);
+            }
+            long written = 0;
+            long started = System.nanoTime();
+            long lastReport = started;
+            listener.onProgress(0, total, 0);
+            for (int i = 0; i < entries.size(); i++) {
+                if (i + READ_AHEAD < entries.size()) {
+                    startReading(entries.get(i + READ_AHEAD), readers);
+                }
+                ArchiveEntry entry = entries.get(i);
+                zip.putNextEntry(new ZipEntry(entry.name));
+                if (entry.text != null) {
+                    zip.write(entry.text);
+                    written += entry.text.length;
+                } else {
+                    for (byte[] chunk = entry.take(); chunk != END; chunk = entry.take()) {
+                        if (cancelled.getAsBoolean()) {
+                            throw new CancellationException();
+                        }
+                        zip.write(chunk);
+                        written += chunk.length;
+                        long now = System.nanoTime();
+                        if (now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                            listener.onProgress(written, total, written / Math.max((now - started) / 1e9, 1e-9));
+                            lastReport = now;
+                        }
+                    }
+                    if (entry.error != null) {
+                        throw new IOException("Could not read " + entry.name + ": " + entry.error.getMessage(), entry.error);
+                    }
+                }
+                zip.closeEntry();
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException();
+                }
+            }
+            listener.onProgress(written, total, written / Math.max((System.nanoTime() - started) / 1e9, 1e-9));
+        } catch (IOException | RuntimeException e) {
+            readers.shutdownNow();
+            Files.deleteIfExists(partial);
+            throw e;
+        } finally {
+            readers.shutdownNow();
+        }
+
+        Files.move(partial, zipFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("✓ Exported " + entries.size() + " entries to " + zipFile);
+        return zipFile;
+    }
+
+    /**
+     * Read an attachment into its entry's buffer; blocks while the buffer is full
+     */
+    private void startReading(ArchiveEntry entry, ExecutorService readers) {
+        if (entry.attachment == null) {
+            return;
+        }
+        readers.execute(() -> {
+            try (InputStream in = Files.newInputStream(attachmentStore.resolve(entry.attachment))) {
+                byte[] chunk;
+                while ((chunk = in.readNBytes(CHUNK_BYTES)).length > 0) {
+                    entry.chunks.put(chunk);
+                }
+            } catch (IOException e) {
+                entry.error = e;
+            } catch (InterruptedException e) {
+                return; // Export abandoned
+            }
+            try {
+                entry.chunks.put(END);
+            } catch (InterruptedException e) {
+                // Export abandoned
+            }
+        });
+    }
+
+    private static byte[] describe(Submission submission, List<String> missing) {
+        Assignment assignment = submission.getAssignment();
+        Student student = submission.getStudent();
+        StringBuilder text = new StringBuilder();
+        text.append("Assignment: ").append(assignment != null ? assignment.getTitle() : submission.getAssignmentId()).append('\n');
+        text.append("Student: ").append(student != null ? student.getName() + " (" + student.getStudentId() + ")"
+                : submission.getStudentUserId()).append('\n');
+        text.append("Submission: ").append(submission.getSubmissionId()).append('\n');
+        text.append("Submitted At: ").append(submission.getSubmittedAt().format(DATE_FORMAT));
+        if (assignment != null && assignment.getDueDate() != null && submission.getSubmittedAt().isAfter(assignment.getDueDate())) {
+            text.append(" (late)");
+        }
+        text.append('\n');
+        text.append("Status: ").append(submission.getStatus()).append('\n');
+        if (submission.getMarks() != null) {
+            text.append("Marks: ").append(submission.getMarks())
+                    .append(assignment != null ? "/" + assignment.getMaxMarks() : "").append('\n');
+        }
+        if (submission.getFeedback() != null) {
+            text.append("Feedback: ").append(submission.getFeedback()).append('\n');
+        }
+        for (String fileName : missing) {
+            text.append("Missing attachment: ").append(fileName).append('\n');
+        }
+        text.append('\n').append(submission.getContent() != null ? submission.getContent() : "").append('\n');
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String folderName(Submission submission) {
+        Student student = submission.getStudent();
+        String id = student != null && student.getStudentId() != null && !student.getStudentId().isBlank()
+                ? student.getStudentId() : submission.getStudentUserId();
+        return safeName(id != null ? id : "unknown");
+    }
+
+    /**
+     * Make a name safe to use as one path segment inside the archive
+     */
+    private static String safeName(String name) {
+        String safe = name == null ? "" : name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+        return safe.isEmpty() || safe.equals(".") || safe.equals("..") ? "_" : safe;
+    }
+
+    private static String uniqueName(String name, Set<String> used) {
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int n = 2; !used.add(candidate); n++) {
+            candidate = base + " (" + n + ")" + extension;
+        }
+        return candidate;
+    }
+
+    /**
+     * One file in the archive: generated text, or an attachment read in chunks
+     */
+    private static final class ArchiveEntry {
+        private final String name;
+        private final byte[] text;
+        private final Attachment attachment;
+        private final long size;
+        private final BlockingQueue<byte[]> chunks;
+        private volatile IOException error;
+
+        private ArchiveEntry(String name, byte[] text, Attachment attachment, long size) {
+            this.name = name;
+            this.text = text;
+            this.attachment = attachment;
+            this.size = size;
+            this.chunks = attachment != null ? new ArrayBlockingQueue<>(CHUNKS_PER_ENTRY) : null;
+        }
+
+        static ArchiveEntry forText(String name, byte[] text) {
+            return new ArchiveEntry(name, text, null, text.length);
+        }
+
+        static ArchiveEntry forAttachment(String name, Attachment attachment) {
+            return new ArchiveEntry(name, null, attachment, attachment.getSize());
+        }
+
+        byte[] take() throws InterruptedIOException {
+            try {
+                return chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Export interrupted");
+            }
+        }
+    }
+}
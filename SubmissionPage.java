@@ -0,0 +1,40 @@
+package org.app.service;
+
+import org.app.model.Submission;
+
+import java.util.List;
+
+/**
+ * One window of a sorted, filtered submissions query
+ */
+public final class SubmissionPage {
+    private final List<Submission> rows;
+    private final int offset;
+    private final int total;
+
+    SubmissionPage(List<Submission> rows, int offset, int total) {
+        this.rows = rows;
+        this.offset = offset;
+        this.total = total;
+    }
+
+    public List<Submission> getRows() { return rows; }
+
+    /**
+     * Position of the first row within the whole result
+     */
+    public int getOffset() { return offset; }
+
+    /**
+     * Number of rows matching the query across all pages
+     */
+    public int getTotal() { return total; }
+
+    public boolean hasNext() {
+        return offset + rows.size() < total;
+    }
+
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
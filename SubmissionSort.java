@@ -0,0 +1,28 @@
+package org.app.service;
+
+import org.app.model.Submission;
+
+import java.util.Comparator;
+
+/**
+ * Orderings the submissions page query can return, each with its comparator
+ * Ties fall back to the submission ID so paging is stable.
+ */
+public enum SubmissionSort {
+    SUBMITTED_AT(Comparator.comparing(Submission::getSubmittedAt)),
+    ASSIGNMENT(Comparator.comparing(s -> s.getAssignment().getTitle(), String.CASE_INSENSITIVE_ORDER)),
+    STUDENT(Comparator.comparing(s -> s.getStudent().getName(), String.CASE_INSENSITIVE_ORDER)),
+    STATUS(Comparator.comparing(Submission::getStatus)),
+    MARKS(Comparator.comparing(Submission::getMarks, Comparator.nullsLast(Comparator.naturalOrder())));
+
+    private final Comparator<Submission> comparator;
+
+    SubmissionSort(Comparator<Submission> comparator) {
+        this.comparator = comparator;
+    }
+
+    Comparator<Submission> comparator(boolean ascending) {
+        Comparator<Submission> ordered = ascending ? comparator : comparator.reversed();
+        return ordered.thenComparing(Submission::getSubmissionId);
+    }
+}
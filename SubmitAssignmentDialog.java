@@ -2,11 +2,14 @@ package org.app.gui;
 
 import org.app.model.*;
 import org.app.service.AssignmentService;
+import org.app.util.AttachmentStore;
 
 import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Submit Assignment Dialog for Students
@@ -31,6 +34,8 @@ public class SubmitAssignmentDialog extends JDialog {
     private DefaultListModel<String> teacherAttachmentsModel;
     private JButton viewTeacherFileButton;
     private JButton downloadTeacherFileButton;
+    private JButton submitButton;
+    private final BackgroundTasks tasks = new BackgroundTasks();
 
     public SubmitAssignmentDialog(JFrame parent, Student student, List<Course> courses,
                                   AssignmentService assignmentService) {
@@ -42,25 +47,15 @@ public class SubmitAssignmentDialog extends JDialog {
 
         initializeComponents();
         setupLayout();
+        loadAvailableAssignments();
 
         setSize(800, 750); // Increased size to accommodate teacher attachments
         setLocationRelativeTo(parent);
     }
 
     private void initializeComponents() {
-        // Get all available assignments from student's courses
-        List<Assignment> availableAssignments = courses.stream()
-                .flatMap(course -> assignmentService.getAssignmentsByCourse(course).stream())
-                .filter(assignment -> assignment.getStatus() == AssignmentStatus.ACTIVE)
-                .filter(assignment -> {
-                    // Check if student hasn't already submitted
-                    List<Submission> studentSubmissions = assignmentService.getSubmissionsByStudent(student);
-                    return studentSubmissions.stream()
-                            .noneMatch(sub -> sub.getAssignment().equals(assignment));
-                })
-                .toList();
-
-        assignmentComboBox = new JComboBox<>(availableAssignments.toArray(new Assignment[0]));
+        // Filled in by loadAvailableAssignments once the background load finishes
+        assignmentComboBox = new JComboBox<>();
         assignmentComboBox.setRenderer(new DefaultListCellRenderer() {
             @Override
             public Component getListCellRendererComponent(JList<?> list, Object value,
@@ -100,11 +95,6 @@ public class SubmitAssignmentDialog extends JDialog {
         // Add listener to update assignment details
         assignmentComboBox.addActionListener(e -> updateAssignmentDetails());
 
-        // Initialize with first assignment if available (moved after all components are initialized)
-        if (assignmentComboBox.getItemCount() > 0) {
-            updateAssignmentDetails();
-        }
-
         // Buttons for student file attachment
         addFileButton = new JButton("Add File");
         removeFileButton = new JButton("Remove File");
@@ -207,7 +197,7 @@ public class SubmitAssignmentDialog extends JDialog {
 
         // Main action buttons
         JPanel actionButtonPanel = new JPanel(new FlowLayout());
-        JButton submitButton = new JButton("Submit Assignment");
+        submitButton = new JButton("Submit Assignment");
         submitButton.setBackground(new Color(76, 175, 80));
         submitButton.setForeground(Color.WHITE);
         submitButton.setPreferredSize(new Dimension(150, 35));
@@ -220,6 +210,7 @@ public class SubmitAssignmentDialog extends JDialog {
         submitButton.addActionListener(e -> handleSubmission());
         cancelButton.addActionListener(e -> dispose());
 
+        actionButtonPanel.add(tasks.getProgressBar());
         actionButtonPanel.add(submitButton);
         actionButtonPanel.add(cancelButton);
 
@@ -232,6 +223,27 @@ public class SubmitAssignmentDialog extends JDialog {
         add(bottomPanel, BorderLayout.SOUTH);
     }
 
+    /**
+     * Load the active assignments the student has not submitted yet
+     */
+    private void loadAvailableAssignments() {
+        tasks.run("Loading assignments...", () -> {
+            Set<String> submitted = assignmentService.getSubmissionsByStudent(student).stream()
+                    .map(Submission::getAssignmentId)
+                    .collect(Collectors.toSet());
+            return courses.stream()
+                    .flatMap(course -> assignmentService.getAssignmentsByCourse(course).stream())
+                    .filter(assignment -> assignment.getStatus() == AssignmentStatus.ACTIVE)
+                    .filter(assignment -> !submitted.contains(assignment.getAssignmentId()))
+                    .toList();
+        }, availableAssignments -> {
+            assignmentComboBox.setModel(new DefaultComboBoxModel<>(availableAssignments.toArray(new Assignment[0])));
+            if (assignmentComboBox.getItemCount() > 0) {
+                updateAssignmentDetails();
+            }
+        }, submitButton);
+    }
+
     private void updateAssignmentDetails() {
         Assignment selectedAssignment = (Assignment) assignmentComboBox.getSelectedItem();
         if (selectedAssignment != null) {
@@ -252,13 +264,12 @@ public class SubmitAssignmentDialog extends JDialog {
 
     private void updateTeacherAttachments(Assignment assignment) {
         teacherAttachmentsModel.clear();
-        List<String> attachments = assignment.getAttachmentPaths();
-        for (String filePath : attachments) {
-            java.io.File file = new java.io.File(filePath);
-            if (file.exists()) {
-                teacherAttachmentsModel.addElement(file.getName());
+        AttachmentStore store = AttachmentStore.getInstance();
+        for (Attachment attachment : assignment.getAttachments()) {
+            if (store.contains(attachment)) {
+                teacherAttachmentsModel.addElement(attachment.getFileName());
             } else {
-                teacherAttachmentsModel.addElement(file.getName() + " (File not found)");
+                teacherAttachmentsModel.addElement(attachment.getFileName() + " (File not found)");
             }
         }
     }
@@ -293,21 +304,14 @@ public class SubmitAssignmentDialog extends JDialog {
         if (selectedIndex != -1) {
             Assignment selectedAssignment = (Assignment) assignmentComboBox.getSelectedItem();
             if (selectedAssignment != null) {
-                String filePath = selectedAssignment.getAttachmentPaths().get(selectedIndex);
-                java.io.File file = new java.io.File(filePath);
-
-                if (file.exists()) {
-                    try {
-                        java.awt.Desktop.getDesktop().open(file);
-                    } catch (java.io.IOException e) {
-                        JOptionPane.showMessageDialog(this,
-                                "Cannot open file: " + e.getMessage(),
-                                "File Open Error",
-                                JOptionPane.ERROR_MESSAGE);
-                    }
+                Attachment attachment = selectedAssignment.getAttachments().get(selectedIndex);
+                AttachmentStore store = AttachmentStore.getInstance();
+
+                if (store.contains(attachment)) {
+                    TransferProgressDialog.open(this, attachment);
                 } else {
                     JOptionPane.showMessageDialog(this,
-                            "File not found: " + file.getName(),
+                            "File not found: " + attachment.getFileName(),
                             "File Not Found",
                             JOptionPane.ERROR_MESSAGE);
                 }
@@ -320,34 +324,23 @@ public class SubmitAssignmentDialog extends JDialog {
         if (selectedIndex != -1) {
             Assignment selectedAssignment = (Assignment) assignmentComboBox.getSelectedItem();
             if (selectedAssignment != null) {
-                String filePath = selectedAssignment.getAttachmentPaths().get(selectedIndex);
-                java.io.File sourceFile = new java.io.File(filePath);
+                Attachment attachment = selectedAssignment.getAttachments().get(selectedIndex);
+                AttachmentStore store = AttachmentStore.getInstance();
 
-                if (sourceFile.exists()) {
+                if (store.contains(attachment)) {
                     JFileChooser fileChooser = new JFileChooser();
                     fileChooser.setDialogTitle("Save Question File As");
-                    fileChooser.setSelectedFile(new java.io.File(sourceFile.getName()));
+                    fileChooser.setSelectedFile(new java.io.File(attachment.getFileName()));
 
                     int result = fileChooser.showSaveDialog(this);
                     if (result == JFileChooser.APPROVE_OPTION) {
                         java.io.File destinationFile = fileChooser.getSelectedFile();
-                        try {
-                            java.nio.file.Files.copy(sourceFile.toPath(), destinationFile.toPath(),
-                                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                            JOptionPane.showMessageDialog(this,
-                                "Question file downloaded successfully!",
-                                "Download Complete",
-                                JOptionPane.INFORMATION_MESSAGE);
-                        } catch (java.io.IOException e) {
-                            JOptionPane.showMessageDialog(this,
-                                "Error downloading file: " + e.getMessage(),
-                                "Download Error",
-                                JOptionPane.ERROR_MESSAGE);
-                        }
+                        // Copies in the background; this dialog stays usable meanwhile
+                        TransferProgressDialog.download(this, attachment, destinationFile.toPath());
                     }
                 } else {
                     JOptionPane.showMessageDialog(this,
-                        "File not found: " + sourceFile.getName(),
+                        "File not found: " + attachment.getFileName(),
                         "File Not Found",
                         JOptionPane.ERROR_MESSAGE);
                 }
@@ -375,27 +368,20 @@ public class SubmitAssignmentDialog extends JDialog {
             return;
         }
 
-        try {
-            // Submit the assignment
-            Submission submission = assignmentService.submitAssignment(selectedAssignment, student, content);
-
-            // Add file attachments to the submission
-            for (String filePath : selectedFiles) {
-                submission.addAttachment(filePath);
-            }
-
+        List<java.io.File> files = selectedFiles.stream().map(java.io.File::new).collect(Collectors.toList());
+        // The files are copied into the attachment store as part of the submission
+        tasks.run("Submitting...",
+                () -> assignmentService.submitAssignment(selectedAssignment, student, content, files), submission -> {
             success = true;
             JOptionPane.showMessageDialog(this,
                     "Assignment submitted successfully!",
                     "Submission Complete",
                     JOptionPane.INFORMATION_MESSAGE);
             dispose();
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    "Submission failed: " + e.getMessage(),
-                    "Submission Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> JOptionPane.showMessageDialog(this,
+                "Submission failed: " + e.getMessage(),
+                "Submission Error",
+                JOptionPane.ERROR_MESSAGE), submitButton);
     }
 
     public boolean isSuccess() {
@@ -3,6 +3,7 @@ package org.app.model;
 import com.fasterxml.jackson.annotation.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Teacher class for BUP UCAM Assignment Tracker
@@ -16,25 +17,25 @@ public class Teacher extends User {
 
     // Store course and assignment IDs for persistence
     @JsonProperty("courseIds")
-    private List<String> courseIds = new ArrayList<>();
+    private CopyOnWriteArrayList<String> courseIds = new CopyOnWriteArrayList<>();
 
     @JsonProperty("assignmentIds")
-    private List<String> assignmentIds = new ArrayList<>();
+    private CopyOnWriteArrayList<String> assignmentIds = new CopyOnWriteArrayList<>();
 
     @JsonIgnore
-    private List<Course> coursesTaught;
+    private CopyOnWriteArrayList<Course> coursesTaught;
     @JsonIgnore
-    private List<Assignment> assignmentsCreated;
+    private CopyOnWriteArrayList<Assignment> assignmentsCreated;
 
     private String displayName; // This field was missing and causing the error
 
     // Default constructor for Jackson
     public Teacher() {
         super();
-        this.coursesTaught = new ArrayList<>();
-        this.assignmentsCreated = new ArrayList<>();
-        this.courseIds = new ArrayList<>();
-        this.assignmentIds = new ArrayList<>();
+        this.coursesTaught = new CopyOnWriteArrayList<>();
+        this.assignmentsCreated = new CopyOnWriteArrayList<>();
+        this.courseIds = new CopyOnWriteArrayList<>();
+        this.assignmentIds = new CopyOnWriteArrayList<>();
     }
 
     public Teacher(String userId, String name, String email, String password,
@@ -42,10 +43,10 @@ public class Teacher extends User {
         super(userId, name, email, password, UserRole.TEACHER);
         this.department = department;
         this.employeeId = employeeId;
-        this.coursesTaught = new ArrayList<>();
-        this.assignmentsCreated = new ArrayList<>();
-        this.courseIds = new ArrayList<>();
-        this.assignmentIds = new ArrayList<>();
+        this.coursesTaught = new CopyOnWriteArrayList<>();
+        this.assignmentsCreated = new CopyOnWriteArrayList<>();
+        this.courseIds = new CopyOnWriteArrayList<>();
+        this.assignmentIds = new CopyOnWriteArrayList<>();
         this.displayName = "Prof. " + name + " (" + department + ")";
     }
 
@@ -66,42 +67,34 @@ public class Teacher extends User {
     }
 
     public void addCourse(Course course) {
-        if (!coursesTaught.contains(course)) {
-            coursesTaught.add(course);
-            if (!courseIds.contains(course.getCourseId())) {
-                courseIds.add(course.getCourseId());
-            }
+        if (coursesTaught.addIfAbsent(course)) {
+            courseIds.addIfAbsent(course.getCourseId());
         }
     }
 
     public void addAssignment(Assignment assignment) {
-        if (!assignmentsCreated.contains(assignment)) {
-            assignmentsCreated.add(assignment);
-            if (!assignmentIds.contains(assignment.getAssignmentId())) {
-                assignmentIds.add(assignment.getAssignmentId());
-            }
+        if (assignmentsCreated.addIfAbsent(assignment)) {
+            assignmentIds.addIfAbsent(assignment.getAssignmentId());
         }
     }
 
-    // Methods to manipulate the collections directly for restoration
-    public void clearCoursesTaught() {
-        this.coursesTaught.clear();
-    }
-
-    public void addCourseDirect(Course course) {
-        if (!coursesTaught.contains(course)) {
-            coursesTaught.add(course);
+    // Replace the collections in one step (used when linking loaded data)
+    public void setCoursesTaught(List<Course> courses) {
+        this.coursesTaught = new CopyOnWriteArrayList<>(courses);
+        List<String> ids = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            ids.add(course.getCourseId());
         }
+        this.courseIds = new CopyOnWriteArrayList<>(ids);
     }
 
-    public void clearAssignmentsCreated() {
-        this.assignmentsCreated.clear();
-    }
-
-    public void addAssignmentDirect(Assignment assignment) {
-        if (!assignmentsCreated.contains(assignment)) {
-            assignmentsCreated.add(assignment);
+    public void setAssignmentsCreated(List<Assignment> assignments) {
+        this.assignmentsCreated = new CopyOnWriteArrayList<>(assignments);
+        List<String> ids = new ArrayList<>(assignments.size());
+        for (Assignment assignment : assignments) {
+            ids.add(assignment.getAssignmentId());
         }
+        this.assignmentIds = new CopyOnWriteArrayList<>(ids);
     }
 
     // Getters and setters for the ID lists
@@ -110,7 +103,7 @@ public class Teacher extends User {
     }
 
     public void setCourseIds(List<String> courseIds) {
-        this.courseIds = courseIds;
+        this.courseIds = courseIds != null ? new CopyOnWriteArrayList<>(courseIds) : new CopyOnWriteArrayList<>();
     }
 
     public List<String> getAssignmentIds() {
@@ -118,7 +111,7 @@ public class Teacher extends User {
     }
 
     public void setAssignmentIds(List<String> assignmentIds) {
-        this.assignmentIds = assignmentIds;
+        this.assignmentIds = assignmentIds != null ? new CopyOnWriteArrayList<>(assignmentIds) : new CopyOnWriteArrayList<>();
     }
 
     // Getters and Setters
@@ -4,25 +4,49 @@ import org.app.model.*;
 import org.app.service.*;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 public class TeacherDashboard extends JPanel {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+    private static final int PAGE_SIZE = 100; // Submissions rows fetched per page
+    private static final int FILTER_DELAY_MS = 250; // Typing pause before the filter is applied
+    // Sort key behind each submissions column; File (4) is not sortable
+    private static final SubmissionSort[] COLUMN_SORTS = {
+            SubmissionSort.ASSIGNMENT, SubmissionSort.STUDENT, SubmissionSort.SUBMITTED_AT,
+            SubmissionSort.STATUS, null, SubmissionSort.MARKS};
+
     private Teacher teacher;
     private UserService userService;
     private CourseService courseService;
     private AssignmentService assignmentService;
     private AssignmentTrackerGUI mainFrame;
 
-    private DefaultTableModel coursesTableModel;
-    private DefaultTableModel assignmentsTableModel;
-    private DefaultTableModel submissionsTableModel;
+    private EntityTableModel<Course> coursesTableModel;
+    private EntityTableModel<Assignment> assignmentsTableModel;
+    private EntityTableModel<Submission> submissionsTableModel;
 
     private JTable coursesTable;
     private JTable assignmentsTable;
     private JTable submissionsTable;
+    private JButton gradeButton;
+    private JButton prevPageButton;
+    private JButton nextPageButton;
+    private JLabel pageLabel;
+    private SubmissionSort submissionSort = SubmissionSort.SUBMITTED_AT;
+    private boolean sortAscending = false;
+    private String submissionFilter = "";
+    private int pageOffset = 0;
+    private int submissionsRequest = 0; // Bumped per page query so only the latest result is shown
+    private Timer filterTimer;
+    private final BackgroundTasks tasks = new BackgroundTasks();
+    private final DomainEventBus.Subscription eventSubscription;
 
     public TeacherDashboard(Teacher teacher, UserService userService,
                             CourseService courseService, AssignmentService assignmentService,
@@ -34,9 +58,63 @@ public class TeacherDashboard extends JPanel {
         this.mainFrame = mainFrame;
 
         initializeComponents();
+        // Subscribe before the first load so nothing published in between is missed
+        eventSubscription = DomainEventBus.getInstance().subscribe(this::applyEvents, SwingUtilities::invokeLater);
         refreshAllTables();
     }
 
+    /**
+     * Stop receiving live updates; called when the dashboard is discarded
+     */
+    void close() {
+        eventSubscription.cancel();
+        if (filterTimer != null) filterTimer.stop();
+    }
+
+    /**
+     * Apply what other users changed to the tables, touching only the affected rows
+     * New submissions can land anywhere in the current sort, so they re-query
+     * the visible page (once per batch) instead of being inserted directly
+     */
+    private void applyEvents(List<DomainEvent> batch) {
+        boolean reloadPage = false;
+        for (DomainEvent event : batch) {
+            if (event instanceof DomainEvent.AssignmentCreated) {
+                Assignment assignment = ((DomainEvent.AssignmentCreated) event).getAssignment();
+                if (isMine(assignment)) assignmentsTableModel.upsert(assignment);
+                if (coursesTableModel.indexOf(assignment.getCourseId()) >= 0) {
+                    coursesTableModel.upsert(assignment.getCourse()); // Storage used
+                }
+            } else if (event instanceof DomainEvent.SubmissionCreated) {
+                Assignment assignment = ((DomainEvent.SubmissionCreated) event).getSubmission().getAssignment();
+                if (isMine(assignment)) {
+                    assignmentsTableModel.upsert(assignment); // Submission count
+                    reloadPage = true;
+                }
+                if (coursesTableModel.indexOf(assignment.getCourseId()) >= 0) {
+                    coursesTableModel.upsert(assignment.getCourse()); // Storage used
+                }
+            } else if (event instanceof DomainEvent.SubmissionGraded) {
+                Submission submission = ((DomainEvent.SubmissionGraded) event).getSubmission();
+                if (submissionsTableModel.indexOf(submission.getSubmissionId()) >= 0) {
+                    submissionsTableModel.upsert(submission);
+                }
+            } else if (event instanceof DomainEvent.StudentEnrolled) {
+                Course course = ((DomainEvent.StudentEnrolled) event).getCourse();
+                if (coursesTableModel.indexOf(course.getCourseId()) >= 0) {
+                    coursesTableModel.upsert(course); // Enrolled count
+                }
+            }
+        }
+        if (reloadPage) {
+            refreshSubmissionsTable();
+        }
+    }
+
+    private boolean isMine(Assignment assignment) {
+        return teacher.getUserId().equals(assignment.getCreatorId());
+    }
+
     private void initializeComponents() {
         setLayout(new BorderLayout());
         setBackground(Color.WHITE);
@@ -66,6 +144,7 @@ public class TeacherDashboard extends JPanel {
         tabbedPane.addTab("Grade Submissions", createGradeSubmissionsTab());
 
         add(tabbedPane, BorderLayout.CENTER);
+        add(tasks.getProgressBar(), BorderLayout.SOUTH);
     }
 
     private JPanel createManageCoursesTab() {
@@ -78,14 +157,21 @@ public class TeacherDashboard extends JPanel {
             refreshCoursesTable();
         });
 
-        String[] columns = {"Course Code", "Course Name", "Department", "Credit Hours", "Enrolled Students"};
-        coursesTableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        coursesTableModel = new EntityTableModel<>(Course::getCourseId,
+                EntityTableModel.column("Course Code", Course::getCourseCode),
+                EntityTableModel.column("Course Name", Course::getCourseName),
+                EntityTableModel.column("Department", Course::getDepartment),
+                EntityTableModel.column("Credit Hours", Course::getCreditHours),
+                EntityTableModel.column("Enrolled Students", c -> c.getEnrolledStudents().size()),
+                EntityTableModel.column("Storage", c -> TransferProgressDialog.formatBytes(
+                        assignmentService.getStorageUsage().getCourseBytes(c.getCourseId()))));
         coursesTable = new JTable(coursesTableModel);
         styleTable(coursesTable);
 
-        panel.add(createToolbar(createCourseBtn), BorderLayout.NORTH);
+        JButton importRosterBtn = createStyledButton("Import Roster (CSV)", new Color(52, 152, 219), Color.WHITE);
+        importRosterBtn.addActionListener(e -> importRoster(importRosterBtn));
+
+        panel.add(createToolbar(createCourseBtn, importRosterBtn), BorderLayout.NORTH);
         panel.add(new JScrollPane(coursesTable), BorderLayout.CENTER);
         return panel;
     }
@@ -95,15 +181,9 @@ public class TeacherDashboard extends JPanel {
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         JButton createAssignmentBtn = createStyledButton("Create Assignment", new Color(46, 204, 113), Color.WHITE);
-        createAssignmentBtn.addActionListener(e -> {
-            showCreateAssignmentDialog();
-            refreshAssignmentsTable();
-        });
+        createAssignmentBtn.addActionListener(e -> showCreateAssignmentDialog());
 
-        String[] columns = {"Title", "Course", "Type", "Due Date", "Max Marks", "Submissions"};
-        assignmentsTableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        assignmentsTableModel = createAssignmentsTableModel();
         assignmentsTable = new JTable(assignmentsTableModel);
         styleTable(assignmentsTable);
 
@@ -119,16 +199,16 @@ public class TeacherDashboard extends JPanel {
         JButton refreshBtn = createStyledButton("Refresh Assignments", new Color(155, 89, 182), Color.WHITE);
         refreshBtn.addActionListener(e -> refreshAssignmentsTable());
 
+        JButton exportBtn = createStyledButton("Export Submissions (ZIP)", new Color(155, 89, 182), Color.WHITE);
+        exportBtn.addActionListener(e -> exportSelectedAssignment());
+
         if (assignmentsTableModel == null) {
-            String[] columns = {"Title", "Course", "Type", "Due Date", "Max Marks", "Submissions"};
-            assignmentsTableModel = new DefaultTableModel(columns, 0) {
-                @Override public boolean isCellEditable(int row, int col) { return false; }
-            };
+            assignmentsTableModel = createAssignmentsTableModel();
             assignmentsTable = new JTable(assignmentsTableModel);
             styleTable(assignmentsTable);
         }
 
-        panel.add(createToolbar(refreshBtn), BorderLayout.NORTH);
+        panel.add(createToolbar(refreshBtn, exportBtn), BorderLayout.NORTH);
         panel.add(new JScrollPane(assignmentsTable), BorderLayout.CENTER);
         return panel;
     }
@@ -140,24 +220,93 @@ public class TeacherDashboard extends JPanel {
         JButton refreshBtn = createStyledButton("Refresh Submissions", new Color(241, 196, 15), Color.BLACK);
         refreshBtn.addActionListener(e -> refreshSubmissionsTable());
 
-        JButton gradeBtn = createStyledButton("Grade Selected Submission", new Color(241, 196, 15), Color.BLACK);
-        gradeBtn.addActionListener(e -> gradeSelectedSubmission());
+        gradeButton = createStyledButton("Grade Selected Submission", new Color(241, 196, 15), Color.BLACK);
+        gradeButton.addActionListener(e -> gradeSelectedSubmission());
 
-        JButton viewFileBtn = createStyledButton("View Attached File", new Color(241, 196, 15), Color.BLACK);
-        viewFileBtn.addActionListener(e -> viewSelectedSubmissionFile());
+        JButton viewFileBtn = createStyledButton("View Submission", new Color(241, 196, 15), Color.BLACK);
+        viewFileBtn.addActionListener(e -> viewSelectedSubmission());
 
-        String[] columns = {"Assignment", "Student", "Submitted At", "Status", "File", "Marks"};
-        submissionsTableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        submissionsTableModel = new EntityTableModel<>(Submission::getSubmissionId,
+                EntityTableModel.column("Assignment", s -> s.getAssignment().getTitle()),
+                EntityTableModel.column("Student", s -> s.getStudent().getName()),
+                EntityTableModel.column("Submitted At", s -> s.getSubmittedAt().format(DATE_FORMAT)),
+                EntityTableModel.column("Status", s -> s.getStatus().toString()),
+                EntityTableModel.column("File", s -> s.getAttachments().isEmpty() ? "No file" : s.getAttachments().get(0).getFileName()),
+                EntityTableModel.column("Marks", s -> s.getMarks() != null ? s.getMarks() : "Not graded"));
         submissionsTable = new JTable(submissionsTableModel);
         styleTable(submissionsTable);
 
-        panel.add(createToolbar(refreshBtn, gradeBtn, viewFileBtn), BorderLayout.NORTH);
+        // Sorting is done by the service over all submissions, not just the rows on screen
+        submissionsTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = submissionsTable.columnAtPoint(e.getPoint());
+                if (column >= 0) sortSubmissionsBy(submissionsTable.convertColumnIndexToModel(column));
+            }
+        });
+
+        JTextField filterField = new JTextField(15);
+        // Query once typing pauses rather than on every keystroke
+        filterTimer = new Timer(FILTER_DELAY_MS, e -> filterSubmissions(filterField.getText()));
+        filterTimer.setRepeats(false);
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { filterTimer.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { filterTimer.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { filterTimer.restart(); }
+        });
+
+        JPanel toolbar = createToolbar(refreshBtn, gradeButton, viewFileBtn);
+        toolbar.add(new JLabel("Filter:"));
+        toolbar.add(filterField);
+
+        prevPageButton = new JButton("< Prev");
+        prevPageButton.addActionListener(e -> showSubmissionsPage(pageOffset - PAGE_SIZE));
+        nextPageButton = new JButton("Next >");
+        nextPageButton.addActionListener(e -> showSubmissionsPage(pageOffset + PAGE_SIZE));
+        pageLabel = new JLabel();
+        JPanel pager = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 5));
+        pager.setBackground(Color.WHITE);
+        pager.add(pageLabel);
+        pager.add(prevPageButton);
+        pager.add(nextPageButton);
+
+        panel.add(toolbar, BorderLayout.NORTH);
         panel.add(new JScrollPane(submissionsTable), BorderLayout.CENTER);
+        panel.add(pager, BorderLayout.SOUTH);
         return panel;
     }
 
+    private EntityTableModel<Assignment> createAssignmentsTableModel() {
+        return new EntityTableModel<>(Assignment::getAssignmentId,
+                EntityTableModel.column("Title", Assignment::getTitle),
+                EntityTableModel.column("Course", a -> a.getCourse().getCourseCode()),
+                EntityTableModel.column("Type", a -> a.getType().toString()),
+                EntityTableModel.column("Due Date", a -> a.getDueDate().format(DATE_FORMAT)),
+                EntityTableModel.column("Max Marks", Assignment::getMaxMarks),
+                EntityTableModel.column("Submissions", Assignment::getSubmissionCount));
+    }
+
+    private void filterSubmissions(String text) {
+        submissionFilter = text.trim();
+        showSubmissionsPage(0);
+    }
+
+    /**
+     * Sort by a column; clicking the current sort column again flips the direction
+     */
+    private void sortSubmissionsBy(int column) {
+        SubmissionSort sort = column < COLUMN_SORTS.length ? COLUMN_SORTS[column] : null;
+        if (sort == null) return;
+        sortAscending = sort == submissionSort ? !sortAscending : sort != SubmissionSort.SUBMITTED_AT;
+        submissionSort = sort;
+        showSubmissionsPage(0);
+    }
+
+    private void showSubmissionsPage(int offset) {
+        pageOffset = Math.max(0, offset);
+        refreshSubmissionsTable();
+    }
+
     private JPanel createToolbar(JButton... buttons) {
         JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
         toolbar.setBackground(Color.WHITE);
@@ -183,7 +332,7 @@ public class TeacherDashboard extends JPanel {
         table.setIntercellSpacing(new Dimension(5, 5));
     }
 
-    private void refreshAllTables() {
+    void refreshAllTables() {
         refreshCoursesTable();
         refreshAssignmentsTable();
         refreshSubmissionsTable();
@@ -191,46 +340,39 @@ public class TeacherDashboard extends JPanel {
 
     private void refreshCoursesTable() {
         if (coursesTableModel == null) return;
-        coursesTableModel.setRowCount(0);
-        List<Course> courses = courseService.getCoursesByTeacher(teacher);
-        for (Course c : courses) {
-            coursesTableModel.addRow(new Object[]{
-                    c.getCourseCode(), c.getCourseName(), c.getDepartment(),
-                    c.getCreditHours(), c.getEnrolledStudents().size()
-            });
-        }
+        tasks.run("Loading courses...", () -> courseService.getCoursesByTeacher(teacher), coursesTableModel::sync);
     }
 
     private void refreshAssignmentsTable() {
         if (assignmentsTableModel == null) return;
-        assignmentsTableModel.setRowCount(0);
-        List<Assignment> assignments = assignmentService.getAssignmentsByTeacher(teacher);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
-        for (Assignment a : assignments) {
-            assignmentsTableModel.addRow(new Object[]{
-                    a.getTitle(), a.getCourse().getCourseCode(),
-                    a.getType().toString(), a.getDueDate().format(formatter),
-                    a.getMaxMarks(), a.getSubmissionCount()
-            });
-        }
+        tasks.run("Loading assignments...", () -> assignmentService.getAssignmentsByTeacher(teacher),
+                assignmentsTableModel::sync);
     }
 
     private void refreshSubmissionsTable() {
         if (submissionsTableModel == null) return;
-        submissionsTableModel.setRowCount(0);
-        List<Assignment> assignments = assignmentService.getAssignmentsByTeacher(teacher);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
-        for (Assignment a : assignments) {
-            List<Submission> submissions = assignmentService.getSubmissionsForAssignment(a);
-            for (Submission s : submissions) {
-                submissionsTableModel.addRow(new Object[]{
-                        a.getTitle(), s.getStudent().getName(),
-                        s.getSubmittedAt().format(formatter), s.getStatus().toString(),
-                        s.getFile() != null ? s.getFile().getName() : "No file",
-                        s.getMarks() != null ? s.getMarks() : "Not graded"
-                });
+        SubmissionSort sort = submissionSort;
+        boolean ascending = sortAscending;
+        String filter = submissionFilter;
+        int offset = pageOffset;
+        int request = ++submissionsRequest;
+        tasks.run("Loading submissions...",
+                () -> assignmentService.getSubmissionPage(teacher, sort, ascending, filter, offset, PAGE_SIZE), page -> {
+            if (request != submissionsRequest) {
+                return; // A newer query is in flight; its result wins
             }
-        }
+            if (page.getRows().isEmpty() && page.getOffset() > 0) {
+                // Rows went away under us (new filter or deletions); step back to the last page
+                showSubmissionsPage((page.getTotal() - 1) / PAGE_SIZE * PAGE_SIZE);
+                return;
+            }
+            pageOffset = page.getOffset();
+            submissionsTableModel.setRows(page.getRows());
+            pageLabel.setText(page.getTotal() == 0 ? "No submissions"
+                    : "Rows " + (page.getOffset() + 1) + "-" + (page.getOffset() + page.getRows().size()) + " of " + page.getTotal());
+            prevPageButton.setEnabled(page.hasPrevious());
+            nextPageButton.setEnabled(page.hasNext());
+        });
     }
 
     private void showCreateCourseDialog() {
@@ -240,14 +382,15 @@ public class TeacherDashboard extends JPanel {
     }
 
     private void showCreateAssignmentDialog() {
-        List<Course> teacherCourses = courseService.getCoursesByTeacher(teacher);
-        if (teacherCourses.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "You need to create a course first before creating assignments.", "No Courses", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-        CreateAssignmentDialog dialog = new CreateAssignmentDialog(mainFrame, teacher, teacherCourses, assignmentService);
-        dialog.setVisible(true);
-        refreshAssignmentsTable();
+        tasks.run("Loading courses...", () -> courseService.getCoursesByTeacher(teacher), teacherCourses -> {
+            if (teacherCourses.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "You need to create a course first before creating assignments.", "No Courses", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            CreateAssignmentDialog dialog = new CreateAssignmentDialog(mainFrame, teacher, teacherCourses, assignmentService);
+            dialog.setVisible(true);
+            refreshAssignmentsTable();
+        });
     }
 
     private void gradeSelectedSubmission() {
@@ -261,19 +404,80 @@ public class TeacherDashboard extends JPanel {
             JOptionPane.showMessageDialog(this, "Selected submission not found.");
             return;
         }
+        long expectedVersion = selectedSubmission.getVersion();
         String markStr = JOptionPane.showInputDialog(this, "Enter marks for this submission:");
         if (markStr == null) return;
+        int marks;
         try {
-            int marks = Integer.parseInt(markStr);
-            assignmentService.gradeSubmission(selectedSubmission.getSubmissionId(), marks, "Graded via dashboard", teacher);
-            JOptionPane.showMessageDialog(this, "Submission graded successfully.");
-            refreshSubmissionsTable();
+            marks = Integer.parseInt(markStr);
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Invalid marks input.");
+            return;
+        }
+        tasks.run("Saving grade...", () -> assignmentService.gradeSubmission(selectedSubmission.getSubmissionId(), marks,
+                "Graded via dashboard", teacher, expectedVersion), graded -> {
+            if (graded) {
+                JOptionPane.showMessageDialog(this, "Submission graded successfully.");
+            } else {
+                JOptionPane.showMessageDialog(this, "This submission was graded by someone else in the meantime.\nThe table has been refreshed; please review and try again.",
+                        "Grading Conflict", JOptionPane.WARNING_MESSAGE);
+            }
+            // Only this row changed; either our grade or the one that beat us
+            submissionsTableModel.upsert(selectedSubmission);
+        }, gradeButton);
+    }
+
+    /**
+     * Enroll students in this teacher's courses from a studentId,courseCode CSV
+     */
+    private void importRoster(JButton importButton) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Roster (studentId,courseCode)");
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        java.nio.file.Path csv = fileChooser.getSelectedFile().toPath();
+        RosterImporter importer = new RosterImporter(userService, courseService);
+        tasks.run("Importing roster...", () -> importer.importCsv(csv, teacher), report -> {
+            StringBuilder text = new StringBuilder(report.getSummary());
+            List<RosterImporter.RowError> errors = report.getErrors();
+            for (int i = 0; i < Math.min(errors.size(), 200); i++) {
+                text.append('\n').append(errors.get(i));
+            }
+            if (errors.size() > 200) {
+                text.append("\n... and ").append(errors.size() - 200).append(" more");
+            }
+            JTextArea area = new JTextArea(text.toString(), 12, 60);
+            area.setEditable(false);
+            JOptionPane.showMessageDialog(this, new JScrollPane(area), "Roster Import",
+                    errors.isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+        }, importButton);
+    }
+
+    /**
+     * Save every submission for the selected assignment as one ZIP, for grading offline
+     */
+    private void exportSelectedAssignment() {
+        int row = assignmentsTable.getSelectedRow();
+        if (row < 0) {
+            JOptionPane.showMessageDialog(this, "Please select an assignment to export.");
+            return;
         }
+        Assignment assignment = assignmentsTableModel.getRow(assignmentsTable.convertRowIndexToModel(row));
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Save Submissions Archive As");
+        fileChooser.setSelectedFile(new java.io.File(assignment.getTitle().replaceAll("[\\\\/:*?\"<>|]", "_") + " submissions.zip"));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        java.nio.file.Path destination = fileChooser.getSelectedFile().toPath();
+        SubmissionExporter exporter = new SubmissionExporter(assignmentService);
+        TransferProgressDialog.run(SwingUtilities.getWindowAncestor(this), "Exporting " + assignment.getTitle(),
+                listener -> exporter.exportAssignment(assignment, destination, listener),
+                saved -> JOptionPane.showMessageDialog(this,
+                        "Submissions exported to:\n" + saved.toAbsolutePath(),
+                        "Export Complete", JOptionPane.INFORMATION_MESSAGE));
     }
 
-    private void viewSelectedSubmissionFile() {
+    private void viewSelectedSubmission() {
         int row = submissionsTable.getSelectedRow();
         if (row < 0) {
             JOptionPane.showMessageDialog(this, "Please select a submission to view.");
@@ -284,28 +488,22 @@ public class TeacherDashboard extends JPanel {
             JOptionPane.showMessageDialog(this, "Selected submission not found.");
             return;
         }
-        if (selectedSubmission.getFile() != null) {
-            try {
-                java.net.URI fileUri = selectedSubmission.getFile().toURI();
-                Desktop.getDesktop().browse(fileUri);
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, "Cannot open the attached file.");
-            }
-        } else {
-            JOptionPane.showMessageDialog(this, "No file attached to this submission.");
+        // The rest of the page is the grading queue; the dialog steps through it and previews files in place
+        List<Submission> queue = new ArrayList<>();
+        for (int i = 0; i < submissionsTableModel.getRowCount(); i++) {
+            queue.add(submissionsTableModel.getRow(i));
         }
+        new ViewSubmissionDialog((JFrame) SwingUtilities.getWindowAncestor(this), teacher, queue,
+                submissionsTable.convertRowIndexToModel(row), assignmentService).setVisible(true);
     }
 
+    /**
+     * Resolve a selected (view) row to its submission
+     * Rows change with every page, sort and filter, so go through the model
+     * to the row's submission ID and look that up directly
+     */
     private Submission getSubmissionFromTableRow(int row) {
-        List<Assignment> assignments = assignmentService.getAssignmentsByTeacher(teacher);
-        int count = 0;
-        for (Assignment a : assignments) {
-            List<Submission> subs = assignmentService.getSubmissionsForAssignment(a);
-            for (Submission s : subs) {
-                if (count == row) return s;
-                count++;
-            }
-        }
-        return null;
+        int modelRow = submissionsTable.convertRowIndexToModel(row);
+        return assignmentService.getSubmission(submissionsTableModel.getId(modelRow));
     }
 }
@@ -0,0 +1,139 @@
+package org.app.gui;
+
+import org.app.model.Attachment;
+import org.app.util.AttachmentStore;
+import org.app.util.TransferService;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Small non-modal window that follows one TransferService job
+ * The work runs on the transfer pool; this shows bytes done and throughput
+ * and lets the user cancel. Several can be open at once, and the window
+ * that started one stays usable meanwhile.
+ */
+public class TransferProgressDialog extends JDialog {
+    private final JProgressBar progressBar = new JProgressBar(0, 1000);
+    private final JLabel statusLabel = new JLabel("Waiting...");
+    private TransferService.Transfer transfer;
+
+    /**
+     * Save an attachment to a file the user picked, reporting the outcome when done
+     */
+    public static void download(Window owner, Attachment attachment, Path destination) {
+        run(owner, "Downloading " + attachment.getFileName(),
+                listener -> TransferService.getInstance().download(attachment, destination, listener),
+                saved -> JOptionPane.showMessageDialog(owner,
+                        "File downloaded successfully to:\n" + saved.toAbsolutePath(),
+                        "Download Complete", JOptionPane.INFORMATION_MESSAGE));
+    }
+
+    /**
+     * Follow any transfer job, e.g. an archive export
+     * start is handed the listener to pass to TransferService; onSuccess runs on the EDT
+     */
+    public static void run(Window owner, String title,
+                           Function<TransferService.ProgressListener, TransferService.Transfer> start,
+                           Consumer<Path> onSuccess) {
+        new TransferProgressDialog(owner, title).start(start, onSuccess);
+    }
+
+    /**
+     * Open an attachment with the desktop's default application
+     * The temporary copy under the original file name is only made the first time
+     */
+    public static void open(Window owner, Attachment attachment) {
+        Path copy = AttachmentStore.getInstance().openablePath(attachment);
+        if (Files.exists(copy)) {
+            openOnDesktop(owner, copy);
+            return;
+        }
+        run(owner, "Opening " + attachment.getFileName(),
+                listener -> TransferService.getInstance().download(attachment, copy, listener),
+                saved -> openOnDesktop(owner, saved));
+    }
+
+    private TransferProgressDialog(Window owner, String title) {
+        super(owner, title, ModalityType.MODELESS);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+
+        progressBar.setStringPainted(true);
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> cancel());
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                cancel();
+            }
+        });
+
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(progressBar, BorderLayout.NORTH);
+        panel.add(statusLabel, BorderLayout.CENTER);
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(cancelButton);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+        add(panel);
+
+        setSize(380, 140);
+        setLocationRelativeTo(owner);
+    }
+
+    private void start(Function<TransferService.ProgressListener, TransferService.Transfer> start,
+                       Consumer<Path> onSuccess) {
+        setVisible(true);
+        transfer = start.apply(
+                (done, total, bytesPerSecond) -> SwingUtilities.invokeLater(() -> showProgress(done, total, bytesPerSecond)));
+        transfer.getResult().whenComplete((saved, error) -> SwingUtilities.invokeLater(() -> {
+            dispose();
+            if (error == null) {
+                onSuccess.accept(saved);
+            } else if (!(error instanceof CancellationException)) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                JOptionPane.showMessageDialog(getOwner(),
+                        getTitle() + " failed: " + cause.getMessage(),
+                        "Transfer Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }));
+    }
+
+    private void showProgress(long done, long total, double bytesPerSecond) {
+        progressBar.setValue(total > 0 ? (int) (done * 1000 / total) : 1000);
+        progressBar.setString(total > 0 ? (done * 100 / total) + "%" : "100%");
+        statusLabel.setText(formatBytes(done) + " of " + formatBytes(total) +
+                " at " + formatBytes((long) bytesPerSecond) + "/s");
+    }
+
+    private void cancel() {
+        if (transfer != null) {
+            transfer.cancel();
+        }
+        dispose();
+    }
+
+    private static void openOnDesktop(Window owner, Path file) {
+        try {
+            Desktop.getDesktop().open(file.toFile());
+        } catch (IOException | UnsupportedOperationException e) {
+            JOptionPane.showMessageDialog(owner,
+                    "Cannot open file: " + e.getMessage(),
+                    "File Open Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+}
@@ -0,0 +1,172 @@
+package org.app.util;
+
+import org.app.model.Attachment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Copies attachments out of the attachment store on background threads
+ * Bytes move with FileChannel.transferTo, so the kernel copies file to file
+ * without passing them through the Java heap. Each copy goes in slices so
+ * progress can be reported and a cancel takes effect promptly, and the
+ * destination only appears once the copy is complete. Up to
+ * transfer.parallelism jobs (email.properties) run at the same time;
+ * bulk jobs such as archive exports go through the same pool.
+ */
+public class TransferService {
+    private static final long SLICE_BYTES = 8L * 1024 * 1024;
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L; // At most ten reports a second
+
+    private static TransferService instance;
+
+    private final ExecutorService workers;
+
+    public static synchronized TransferService getInstance() {
+        if (instance == null) {
+            instance = new TransferService(Integer.parseInt(EmailUtil.getConfig("transfer.parallelism", "3")));
+        }
+        return instance;
+    }
+
+    private TransferService(int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger(1);
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "attachment-transfer-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start copying an attachment to a destination file
+     * The listener is called from the transfer thread; the result completes
+     * with the destination, or exceptionally on failure or cancellation.
+     */
+    public Transfer download(Attachment attachment, Path destination, ProgressListener listener) {
+        Path source = AttachmentStore.getInstance().resolve(attachment);
+        return submit((progress, cancelled) -> copy(source, destination, cancelled, progress), listener);
+    }
+
+    /**
+     * Run any file job on the transfer pool, with the same progress and cancel handling as a download
+     */
+    public Transfer submit(Job job, ProgressListener listener) {
+        Transfer transfer = new Transfer();
+        workers.execute(() -> {
+            if (transfer.cancelled) {
+                return;
+            }
+            try {
+                transfer.result.complete(job.run(listener, () -> transfer.cancelled));
+            } catch (CancellationException e) {
+                // The result was already completed by cancel()
+            } catch (UncheckedIOException e) {
+                transfer.result.completeExceptionally(e.getCause());
+            } catch (IOException | RuntimeException e) {
+                transfer.result.completeExceptionally(e);
+            }
+        });
+        return transfer;
+    }
+
+    private Path copy(Path source, Path destination, BooleanSupplier cancelled, ProgressListener listener) {
+        Path partial = null;
+        try {
+            Path dir = destination.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            partial = Files.createTempFile(dir, "." + destination.getFileName(), ".part");
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                long total = in.size();
+                long position = 0;
+                long started = System.nanoTime();
+                long lastReport = started;
+                listener.onProgress(0, total, 0);
+                while (position < total) {
+                    if (cancelled.getAsBoolean()) {
+                        throw new CancellationException();
+                    }
+                    long moved = in.transferTo(position, Math.min(SLICE_BYTES, total - position), out);
+                    if (moved <= 0) {
+                        throw new IOException("Attachment ended early at byte " + position + " of " + total);
+                    }
+                    position += moved;
+                    long now = System.nanoTime();
+                    if (now - lastReport >= PROGRESS_INTERVAL_NANOS || position == total) {
+                        listener.onProgress(position, total, position / Math.max((now - started) / 1e9, 1e-9));
+                        lastReport = now;
+                    }
+                }
+            }
+            Files.move(partial, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return destination;
+        } catch (IOException e) {
+            deletePartial(partial);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deletePartial(partial);
+            throw e;
+        }
+    }
+
+    private static void deletePartial(Path partial) {
+        if (partial == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            System.err.println("Could not remove partial download " + partial + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Background file work that produces a file, reports progress and stops when cancelled
+     * A job that sees cancelled return true removes what it wrote and throws
+     * CancellationException
+     */
+    @FunctionalInterface
+    public interface Job {
+        Path run(ProgressListener listener, BooleanSupplier cancelled) throws IOException;
+    }
+
+    /**
+     * Progress of one transfer; throughput is the average since it started
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long transferred, long total, double bytesPerSecond);
+    }
+
+    /**
+     * A running (or queued) copy
+     */
+    public static final class Transfer {
+        private final CompletableFuture<Path> result = new CompletableFuture<>();
+        private volatile boolean cancelled;
+
+        private Transfer() {}
+
+        public CompletableFuture<Path> getResult() {
+            return result;
+        }
+
+        /**
+         * Stop the copy; the partial file is removed and the result completes as cancelled
+         */
+        public void cancel() {
+            cancelled = true;
+            result.cancel(false);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -27,7 +27,6 @@ public abstract class User {
     private boolean emailVerified;
     private boolean isActive;
     private boolean isEmailVerified;
-    private String emailVerificationCode;
     private List<String> courseIds;
     private List<String> assignmentIds;
 
@@ -99,9 +98,6 @@ public abstract class User {
         this.emailVerified = isEmailVerified; // Keep both in sync
     }
 
-    public String getEmailVerificationCode() { return emailVerificationCode; }
-    public void setEmailVerificationCode(String code) { this.emailVerificationCode = code; }
-
     public List<String> getCourseIds() { return courseIds; }
     public void setCourseIds(List<String> courseIds) { this.courseIds = courseIds != null ? courseIds : new ArrayList<>(); }
 
@@ -2,10 +2,12 @@ package org.app.service;
 
 import org.app.model.*;
 import org.app.util.SimpleDataPersistence;
-import org.app.util.EmailUtil;
-import javax.mail.MessagingException;
-import java.security.SecureRandom;
+import org.app.util.DeferredSave;
+import org.app.util.EmailOutbox;
+import org.app.util.VerificationCodeStore;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -15,20 +17,24 @@ public class UserService {
     private Map<String, User> users;
     private Map<String, Teacher> teachers;
     private Map<String, Student> students;
-    private int userCounter;
+    private final Map<String, User> usersByEmail = new ConcurrentHashMap<>(); // Login lookups without scanning
+    private final Map<String, Student> studentsByStudentId = new ConcurrentHashMap<>(); // Roster lookups
+    private final AtomicInteger userCounter = new AtomicInteger(1);
+    private final DeferredSave saves = new DeferredSave("users", this::writeData);
     private SimpleDataPersistence dataPersistence;
+    private final VerificationCodeStore verificationCodes = VerificationCodeStore.getInstance();
 
     public UserService() {
         this.dataPersistence = new SimpleDataPersistence();
-        this.users = new HashMap<>();
-        this.teachers = new HashMap<>();
-        this.students = new HashMap<>();
+        this.users = new ConcurrentHashMap<>();
+        this.teachers = new ConcurrentHashMap<>();
+        this.students = new ConcurrentHashMap<>();
         loadData();
     }
 
     private void loadData() {
         SimpleDataPersistence.AppSettings settings = dataPersistence.loadSettings();
-        this.userCounter = settings.userCounter;
+        this.userCounter.set(settings.userCounter);
 
         Map<String, SimpleDataPersistence.SimpleUserData> userData = dataPersistence.loadUserCredentials();
 
@@ -39,11 +45,13 @@ public class UserService {
             User user = simpleUser.toUser();
             if (user != null) {
                 users.put(user.getUserId(), user);
+                indexEmail(user);
                 if (user instanceof Teacher) {
                     teachers.put(user.getUserId(), (Teacher) user);
                     System.out.println("✓ Loaded teacher: " + user.getName() + " (" + user.getEmail() + ")");
                 } else if (user instanceof Student) {
                     students.put(user.getUserId(), (Student) user);
+                    indexStudentId((Student) user);
                     System.out.println("✓ Loaded student: " + user.getName() + " (" + user.getEmail() + ")");
                 }
             } else {
@@ -56,7 +64,23 @@ public class UserService {
         System.out.println("  - Students: " + students.size());
     }
 
+    /**
+     * Defer saves until endBatch(), so bulk changes rewrite the file once
+     */
+    public void beginBatch() {
+        saves.begin();
+    }
+
+    public void endBatch() {
+        saves.end();
+    }
+
     private void saveData() {
+        saves.request();
+    }
+
+    private void writeData() {
+        // Only runs on the DeferredSave writer thread, so writes never overlap
         // Convert users to simple format
         Map<String, SimpleDataPersistence.SimpleUserData> userData = new HashMap<>();
         for (User user : users.values()) {
@@ -68,38 +92,28 @@ public class UserService {
 
         // Save settings
         SimpleDataPersistence.AppSettings settings = new SimpleDataPersistence.AppSettings();
-        settings.userCounter = userCounter;
+        settings.userCounter = userCounter.get();
         settings.firstRun = false;
         dataPersistence.saveSettings(settings);
 
         System.out.println("✓ Saved " + users.size() + " users to persistent storage");
     }
 
-    private String generateVerificationCode() {
-        SecureRandom random = new SecureRandom();
-        int code = 100000 + random.nextInt(900000); // 6-digit code
-        return String.valueOf(code);
-    }
-
     /**
      * Register a new teacher with email verification
      */
     public Teacher registerTeacher(String name, String email, String password,
                                    String department, String employeeId) {
-        String userId = "TCH-" + String.format("%04d", userCounter++);
+        String userId = "TCH-" + String.format("%04d", userCounter.getAndIncrement());
         Teacher teacher = new Teacher(userId, name, email, password, department, employeeId);
         teacher.setEmailVerified(false);
-        String code = generateVerificationCode();
-        teacher.setEmailVerificationCode(code);
+        String code = verificationCodes.issue(email);
         users.put(userId, teacher);
+        indexEmail(teacher);
         teachers.put(userId, teacher);
         saveData();
-        // Send verification email
-        try {
-            EmailUtil.sendVerificationEmail(email, code);
-        } catch (MessagingException e) {
-            System.err.println("Failed to send verification email: " + e.getMessage());
-        }
+        // Queue verification email; delivery happens in the background
+        EmailOutbox.getInstance().enqueueVerificationEmail(email, code);
         System.out.println("✓ Teacher registered (verification required): " + name);
         return teacher;
     }
@@ -109,20 +123,17 @@ public class UserService {
      */
     public Student registerStudent(String name, String email, String password,
                                    String studentId, String program, int semester) {
-        String userId = "STD-" + String.format("%04d", userCounter++);
+        String userId = "STD-" + String.format("%04d", userCounter.getAndIncrement());
         Student student = new Student(userId, name, email, password, studentId, program, semester);
         student.setEmailVerified(false);
-        String code = generateVerificationCode();
-        student.setEmailVerificationCode(code);
+        String code = verificationCodes.issue(email);
         users.put(userId, student);
+        indexEmail(student);
         students.put(userId, student);
+        indexStudentId(student);
         saveData();
-        // Send verification email
-        try {
-            EmailUtil.sendVerificationEmail(email, code);
-        } catch (MessagingException e) {
-            System.err.println("Failed to send verification email: " + e.getMessage());
-        }
+        // Queue verification email; delivery happens in the background
+        EmailOutbox.getInstance().enqueueVerificationEmail(email, code);
         System.out.println("✓ Student registered (verification required): " + name);
         return student;
     }
@@ -131,20 +142,34 @@ public class UserService {
      * Authenticate user login
      */
     public User authenticateUser(String email, String password) {
-        return users.values().stream()
-                .filter(user -> user.getEmail().equals(email) && user.getPassword().equals(password))
-                .findFirst()
-                .orElse(null);
+        User user = findUserByEmail(email);
+        return user != null && user.getPassword().equals(password) ? user : null;
     }
 
     /**
      * Find user by email
      */
     public User findUserByEmail(String email) {
-        return users.values().stream()
-                .filter(user -> user.getEmail().equals(email))
-                .findFirst()
-                .orElse(null);
+        return email != null ? usersByEmail.get(email) : null;
+    }
+
+    private void indexEmail(User user) {
+        if (user.getEmail() != null) {
+            usersByEmail.put(user.getEmail(), user);
+        }
+    }
+
+    /**
+     * Find a student by university student ID
+     */
+    public Student findStudentByStudentId(String studentId) {
+        return studentId != null ? studentsByStudentId.get(studentId) : null;
+    }
+
+    private void indexStudentId(Student student) {
+        if (student.getStudentId() != null) {
+            studentsByStudentId.put(student.getStudentId(), student);
+        }
     }
 
     /**
@@ -185,8 +210,12 @@ public class UserService {
     public void updateUserProfile(String userId, String name, String email) {
         User user = users.get(userId);
         if (user != null) {
+            if (user.getEmail() != null) {
+                usersByEmail.remove(user.getEmail(), user);
+            }
             user.setName(name);
             user.setEmail(email);
+            indexEmail(user);
             saveData(); // Save after update
             System.out.println("✓ User profile updated successfully");
         }
@@ -225,14 +254,12 @@ public class UserService {
 
     /**
      * Verify user email with code
+     * Codes live in VerificationCodeStore, so this does not rewrite the user file
      */
     public boolean verifyEmail(String email, String code) {
         User user = findUserByEmail(email);
-        if (user != null && user.getEmailVerificationCode() != null &&
-            user.getEmailVerificationCode().equals(code)) {
+        if (user != null && verificationCodes.verify(email, code)) {
             user.setEmailVerified(true);
-            user.setEmailVerificationCode(null); // Clear code after verification
-            saveData();
             System.out.println("✓ Email verified for user: " + user.getName());
             return true;
         }
@@ -245,16 +272,9 @@ public class UserService {
     public void resendVerificationCode(String email) {
         User user = findUserByEmail(email);
         if (user != null && !user.isEmailVerified()) {
-            String newCode = generateVerificationCode();
-            user.setEmailVerificationCode(newCode);
-            saveData();
-
-            try {
-                EmailUtil.sendVerificationEmail(email, newCode);
-                System.out.println("✓ Verification code resent to: " + email);
-            } catch (MessagingException e) {
-                System.err.println("Failed to resend verification email: " + e.getMessage());
-            }
+            String newCode = verificationCodes.issue(email);
+            EmailOutbox.getInstance().enqueueVerificationEmail(email, newCode);
+            System.out.println("✓ Verification code queued for: " + email);
         }
     }
 
@@ -286,10 +306,9 @@ public class UserService {
      * Delete user completely from the system by user ID
      */
     public boolean deleteUser(String userId) {
-        User user = users.get(userId);
+        // Remove from main users map; only one concurrent caller gets the user back
+        User user = users.remove(userId);
         if (user != null) {
-            // Remove from main users map
-            users.remove(userId);
 
             // Remove from role-specific map
             if (user instanceof Teacher) {
@@ -297,11 +316,20 @@ public class UserService {
                 System.out.println("✓ Teacher deleted: " + user.getName() + " (" + user.getEmail() + ")");
             } else if (user instanceof Student) {
                 students.remove(userId);
+                if (((Student) user).getStudentId() != null) {
+                    studentsByStudentId.remove(((Student) user).getStudentId(), user);
+                }
                 System.out.println("✓ Student deleted: " + user.getName() + " (" + user.getEmail() + ")");
             }
 
+            if (user.getEmail() != null) {
+                usersByEmail.remove(user.getEmail(), user);
+            }
+            verificationCodes.remove(user.getEmail());
+
             // Save changes to persistent storage
             saveData();
+            DomainEventBus.getInstance().publish(new DomainEvent.UserDeleted(user));
             return true;
         }
         System.out.println("✗ User not found with ID: " + userId);
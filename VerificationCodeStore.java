@@ -0,0 +1,217 @@
+package org.app.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory store for email verification codes in BUP UCAM Assignment Tracker
+ * Codes expire after a TTL. Expiry is driven by a hashed timing wheel, so
+ * each tick only looks at the codes that fall due in that slot. The store
+ * can optionally snapshot itself to data/verification_codes.json in the
+ * background so pending codes survive a restart.
+ */
+public class VerificationCodeStore {
+    private static final String DATA_DIR = "data";
+    private static final String SNAPSHOT_FILE = DATA_DIR + "/verification_codes.json";
+    private static final long TICK_MS = 1_000;
+    private static final int WHEEL_SIZE = 512; // Slots; one revolution covers ~8.5 minutes
+    private static final long SNAPSHOT_INTERVAL_SECONDS = 30;
+    private static final SecureRandom RANDOM = new SecureRandom(); // Shared; seeding one per code is wasteful
+
+    private static VerificationCodeStore instance;
+
+    private final Map<String, CodeEntry> codes = new ConcurrentHashMap<>(); // Keyed by email
+    private final List<Set<String>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final long ttlMs;
+    private final boolean snapshotEnabled;
+    private final ScheduledExecutorService scheduler;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile long currentTick;
+    private volatile boolean dirty;
+
+    /**
+     * Get the shared store
+     * TTL and snapshotting come from email.properties
+     * (verification.code.ttl.minutes, verification.snapshot.enabled)
+     */
+    public static synchronized VerificationCodeStore getInstance() {
+        if (instance == null) {
+            instance = new VerificationCodeStore(
+                    Long.parseLong(EmailUtil.getConfig("verification.code.ttl.minutes", "15")) * 60_000,
+                    Boolean.parseBoolean(EmailUtil.getConfig("verification.snapshot.enabled", "false")));
+        }
+        return instance;
+    }
+
+    private VerificationCodeStore(long ttlMs, boolean snapshotEnabled) {
+        this.ttlMs = ttlMs;
+        this.snapshotEnabled = snapshotEnabled;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        this.currentTick = System.currentTimeMillis() / TICK_MS;
+
+        if (snapshotEnabled) {
+            loadSnapshot();
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "verification-codes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::advance, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        if (snapshotEnabled) {
+            scheduler.scheduleAtFixedRate(this::saveSnapshotIfDirty,
+                    SNAPSHOT_INTERVAL_SECONDS, SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Generate and store a fresh 6-digit code for an email, replacing any earlier one
+     */
+    public String issue(String email) {
+        String code = String.valueOf(100000 + RANDOM.nextInt(900000));
+        put(email, new CodeEntry(code, System.currentTimeMillis() + ttlMs));
+        return code;
+    }
+
+    /**
+     * Check a code; a matching, unexpired code is consumed
+     */
+    public boolean verify(String email, String code) {
+        CodeEntry entry = codes.get(email);
+        if (entry == null || code == null) {
+            return false;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            // The wheel may not have reached this slot yet
+            codes.remove(email, entry);
+            dirty = true;
+            return false;
+        }
+        if (entry.code.equals(code) && codes.remove(email, entry)) {
+            dirty = true;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean hasPendingCode(String email) {
+        CodeEntry entry = codes.get(email);
+        return entry != null && entry.expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Drop any code held for an email
+     */
+    public void remove(String email) {
+        if (codes.remove(email) != null) {
+            dirty = true;
+        }
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    private void put(String email, CodeEntry entry) {
+        codes.put(email, entry);
+        long tick = Math.max(deadlineTick(entry.expiresAt), currentTick + 1);
+        wheel.get((int) (tick % WHEEL_SIZE)).add(email);
+        dirty = true;
+    }
+
+    /**
+     * Move the wheel forward to the current time, expiring codes in each passed slot
+     * Codes whose deadline is more than one revolution away stay for a later pass
+     */
+    private void advance() {
+        long targetTick = System.currentTimeMillis() / TICK_MS;
+        while (currentTick < targetTick) {
+            currentTick++;
+            long tickEnd = currentTick * TICK_MS;
+            Set<String> slot = wheel.get((int) (currentTick % WHEEL_SIZE));
+            Iterator<String> it = slot.iterator();
+            while (it.hasNext()) {
+                String email = it.next();
+                CodeEntry entry = codes.get(email);
+                if (entry == null) {
+                    it.remove(); // Already verified or replaced
+                } else if (entry.expiresAt <= tickEnd) {
+                    codes.remove(email, entry);
+                    it.remove();
+                    dirty = true;
+                } else if (deadlineTick(entry.expiresAt) % WHEEL_SIZE != currentTick % WHEEL_SIZE) {
+                    it.remove(); // Re-issued since; the new entry sits in another slot
+                }
+            }
+        }
+    }
+
+    /**
+     * First tick at or after the given time
+     */
+    private static long deadlineTick(long expiresAt) {
+        return (expiresAt + TICK_MS - 1) / TICK_MS;
+    }
+
+    private void loadSnapshot() {
+        try {
+            File file = new File(SNAPSHOT_FILE);
+            if (file.exists()) {
+                Map<String, CodeEntry> saved = objectMapper.readValue(file, new TypeReference<Map<String, CodeEntry>>() {});
+                long now = System.currentTimeMillis();
+                for (Map.Entry<String, CodeEntry> entry : saved.entrySet()) {
+                    if (entry.getValue().expiresAt > now) {
+                        put(entry.getKey(), entry.getValue());
+                    }
+                }
+                System.out.println("✓ Restored " + codes.size() + " pending verification code(s)");
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading verification codes: " + e.getMessage());
+        }
+    }
+
+    private void saveSnapshotIfDirty() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            File dataDir = new File(DATA_DIR);
+            if (!dataDir.exists()) {
+                dataDir.mkdirs();
+            }
+            objectMapper.writeValue(new File(SNAPSHOT_FILE), new HashMap<>(codes));
+        } catch (IOException e) {
+            dirty = true;
+            System.err.println("Error saving verification codes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A code and the wall-clock time (epoch millis) it stops being valid
+     */
+    public static class CodeEntry {
+        public String code;
+        public long expiresAt;
+
+        public CodeEntry() {}
+
+        public CodeEntry(String code, long expiresAt) {
+            this.code = code;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
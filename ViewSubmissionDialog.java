@@ -2,6 +2,7 @@ package org.app.gui;
 
 import org.app.model.*;
 import org.app.service.AssignmentService;
+import org.app.util.AttachmentStore;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -14,47 +15,142 @@ import java.util.List;
 
 /**
  * Dialog for viewing and grading student submissions
+ * Opened on a grading queue (the submissions on the teacher's current page);
+ * Previous/Next step through it in place. Attachments preview inside the
+ * dialog from a shared PreviewCache, and the next submission's previews are
+ * prefetched while the teacher reads this one.
  */
 public class ViewSubmissionDialog extends JDialog {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+
     private AssignmentService assignmentService;
     private Teacher teacher;
+    private final List<Submission> queue;
+    private int position;
     private Submission submission;
     private Assignment assignment;
     private Student student;
     private boolean success = false;
+    private long expectedVersion; // Submission version the displayed grade was read at
+    private final PreviewCache previews = PreviewCache.getInstance();
 
     private JTextArea contentArea;
     private JTextField marksField;
     private JTextArea feedbackArea;
-    private JList<String> attachmentsList;
-    private DefaultListModel<String> attachmentsModel;
+    private JList<Attachment> attachmentsList;
+    private DefaultListModel<Attachment> attachmentsModel;
     private JButton viewFileButton;
     private JButton downloadFileButton;
     private JButton gradeButton;
+    private JButton previousButton;
+    private JButton nextButton;
+    private JButton closeButton;
+    private JLabel assignmentLabel;
+    private JLabel courseLabel;
+    private JLabel dueDateLabel;
+    private JLabel studentLabel;
+    private JLabel submittedLabel;
+    private JLabel statusLabel;
+    private JLabel marksLabel;
+    private JTextArea previewText;
+    private JLabel previewImage;
+    private JPanel previewPanel;
+    private CardLayout previewCards;
+    private final BackgroundTasks tasks = new BackgroundTasks();
 
     public ViewSubmissionDialog(JFrame parent, Teacher teacher, Submission submission,
                                AssignmentService assignmentService) {
+        this(parent, teacher, List.of(submission), 0, assignmentService);
+    }
+
+    public ViewSubmissionDialog(JFrame parent, Teacher teacher, List<Submission> queue, int position,
+                                AssignmentService assignmentService) {
         super(parent, "View Submission", true);
         this.teacher = teacher;
-        this.submission = submission;
-        this.assignment = submission.getAssignment();
-        this.student = submission.getStudent();
+        this.queue = new ArrayList<>(queue);
         this.assignmentService = assignmentService;
 
         initializeComponents();
         setupLayout();
+        showSubmission(position);
 
-        setSize(800, 750);
+        setSize(1000, 800);
         setLocationRelativeTo(parent);
     }
 
+    /**
+     * Load the submission at a queue position into every field
+     */
+    private void showSubmission(int position) {
+        this.position = position;
+        this.submission = queue.get(position);
+        this.assignment = submission.getAssignment();
+        this.student = submission.getStudent();
+
+        setTitle("View Submission (" + (position + 1) + " of " + queue.size() + ")");
+        assignmentLabel.setText(assignment.getTitle());
+        courseLabel.setText(assignment.getCourse().getCourseCode() + " - " + assignment.getCourse().getCourseName());
+        dueDateLabel.setText(assignment.getDueDate().format(DATE_FORMAT));
+        studentLabel.setText(student.getName() + " (" + student.getStudentId() + ")");
+        submittedLabel.setText(submission.getSubmittedAt().format(DATE_FORMAT));
+        marksLabel.setText("Marks (out of " + assignment.getMaxMarks() + "):");
+        contentArea.setText(submission.getContent());
+        contentArea.setCaretPosition(0);
+        reloadGrade();
+
+        attachmentsModel.clear();
+        for (Attachment attachment : submission.getAttachments()) {
+            attachmentsModel.addElement(attachment); // Listed by file name
+        }
+        viewFileButton.setEnabled(attachmentsModel.size() > 0);
+        downloadFileButton.setEnabled(attachmentsModel.size() > 0);
+        if (attachmentsModel.size() > 0) {
+            attachmentsList.setSelectedIndex(0); // Previews it
+        } else {
+            showPreviewMessage("No files attached");
+        }
+        previousButton.setEnabled(position > 0);
+        nextButton.setEnabled(position < queue.size() - 1);
+
+        if (position + 1 < queue.size()) {
+            previews.prefetch(queue.get(position + 1).getAttachments());
+        }
+    }
+
+    private void showPreview(Attachment attachment) {
+        showPreviewMessage("Loading preview of " + attachment.getFileName() + "...");
+        previews.get(attachment).whenComplete((preview, error) -> SwingUtilities.invokeLater(() -> {
+            if (attachment != attachmentsList.getSelectedValue()) {
+                return; // Selection moved on while the preview was built
+            }
+            if (error != null) {
+                showPreviewMessage("Cannot preview " + attachment.getFileName() + "; use View in External App");
+            } else if (preview.getText() != null) {
+                previewText.setText(preview.getText());
+                previewText.setCaretPosition(0);
+                previewCards.show(previewPanel, "text");
+            } else if (preview.getImage() != null) {
+                previewImage.setText(null);
+                previewImage.setIcon(new ImageIcon(preview.getImage()));
+                previewCards.show(previewPanel, "image");
+            } else {
+                showPreviewMessage(preview.getMessage());
+            }
+        }));
+    }
+
+    private void showPreviewMessage(String message) {
+        previewImage.setIcon(null);
+        previewImage.setText(message);
+        previewCards.show(previewPanel, "image");
+    }
+
     private void initializeComponents() {
         // Content area to display submission content
         contentArea = new JTextArea(8, 30);
         contentArea.setLineWrap(true);
         contentArea.setWrapStyleWord(true);
         contentArea.setEditable(false);
-        contentArea.setText(submission.getContent());
         contentArea.setBorder(BorderFactory.createCompoundBorder(
                 BorderFactory.createTitledBorder("Submission Content"),
                 BorderFactory.createEmptyBorder(5, 5, 5, 5)
@@ -62,33 +158,37 @@ public class ViewSubmissionDialog extends JDialog {
 
         // Student attachments list
         attachmentsModel = new DefaultListModel<>();
-
-        // Use the correct method getAttachmentPaths() instead of getAttachments()
-        List<String> attachmentPaths = submission.getAttachmentPaths();
-        if (attachmentPaths != null && !attachmentPaths.isEmpty()) {
-            for (String attachment : attachmentPaths) {
-                attachmentsModel.addElement(attachment);
-            }
-        }
-
         attachmentsList = new JList<>(attachmentsModel);
         attachmentsList.setBorder(BorderFactory.createTitledBorder("Submission Files"));
         attachmentsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        attachmentsList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting() && attachmentsList.getSelectedValue() != null) {
+                showPreview(attachmentsList.getSelectedValue());
+            }
+        });
+
+        // Preview of the selected file: text and code, or an image, or why there is none
+        previewText = new JTextArea();
+        previewText.setEditable(false);
+        previewText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        previewImage = new JLabel("", SwingConstants.CENTER);
+        previewCards = new CardLayout();
+        previewPanel = new JPanel(previewCards);
+        previewPanel.setBorder(BorderFactory.createTitledBorder("Preview"));
+        previewPanel.add(new JScrollPane(previewText), "text");
+        previewPanel.add(new JScrollPane(previewImage), "image");
 
         // Buttons for file handling
-        viewFileButton = new JButton("View Selected File");
+        viewFileButton = new JButton("View in External App");
         downloadFileButton = new JButton("Download Selected File");
-        viewFileButton.setEnabled(attachmentsModel.size() > 0);
-        downloadFileButton.setEnabled(attachmentsModel.size() > 0);
 
         // Grading components
         marksField = new JTextField(5);
-        marksField.setText(submission.getMarks() != null ? submission.getMarks().toString() : "");
+        marksLabel = new JLabel();
 
         feedbackArea = new JTextArea(4, 30);
         feedbackArea.setLineWrap(true);
         feedbackArea.setWrapStyleWord(true);
-        feedbackArea.setText(submission.getFeedback() != null ? submission.getFeedback() : "");
         feedbackArea.setBorder(BorderFactory.createCompoundBorder(
                 BorderFactory.createTitledBorder("Feedback"),
                 BorderFactory.createEmptyBorder(5, 5, 5, 5)
@@ -99,7 +199,11 @@ public class ViewSubmissionDialog extends JDialog {
         gradeButton.setBackground(new Color(33, 150, 243));
         gradeButton.setForeground(Color.WHITE);
 
-        JButton cancelButton = new JButton("Close");
+        closeButton = new JButton("Close");
+        previousButton = new JButton("< Previous");
+        nextButton = new JButton("Next >");
+        previousButton.addActionListener(e -> showSubmission(position - 1));
+        nextButton.addActionListener(e -> showSubmission(position + 1));
 
         // Add event listeners
         gradeButton.addActionListener(e -> {
@@ -113,12 +217,26 @@ public class ViewSubmissionDialog extends JDialog {
                 }
 
                 String feedback = feedbackArea.getText().trim();
-                assignmentService.gradeSubmission(submission.getSubmissionId(), marks, feedback, teacher);
-                success = true;
-                JOptionPane.showMessageDialog(this,
-                        "Assignment graded successfully!",
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-                dispose();
+                // Captured on the EDT; navigation is disabled until the save is done
+                String submissionId = submission.getSubmissionId();
+                long version = expectedVersion;
+                int gradedPosition = position;
+                tasks.run("Saving grade...", () -> assignmentService.gradeSubmission(submissionId,
+                        marks, feedback, teacher, version), graded -> {
+                    if (!graded) {
+                        showGradingConflict();
+                        return;
+                    }
+                    success = true;
+                    JOptionPane.showMessageDialog(this,
+                            "Assignment graded successfully!",
+                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                    if (gradedPosition < queue.size() - 1) {
+                        showSubmission(gradedPosition + 1); // On to the next one in the queue
+                    } else {
+                        dispose();
+                    }
+                }, gradeButton, previousButton, nextButton);
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this,
                         "Please enter a valid number for marks",
@@ -126,28 +244,20 @@ public class ViewSubmissionDialog extends JDialog {
             }
         });
 
-        cancelButton.addActionListener(e -> dispose());
+        closeButton.addActionListener(e -> dispose());
 
         viewFileButton.addActionListener(e -> {
-            String selectedFile = attachmentsList.getSelectedValue();
+            Attachment selectedFile = attachmentsList.getSelectedValue();
             if (selectedFile != null) {
                 try {
-                    // Create a File object from the file path
-                    java.io.File file = new java.io.File(selectedFile);
-
-                    if (file.exists()) {
-                        // Try to open the file with the system's default application
-                        java.awt.Desktop.getDesktop().open(file);
+                    if (AttachmentStore.getInstance().contains(selectedFile)) {
+                        // Open with the system's default application; large files copy in the background
+                        TransferProgressDialog.open(this, selectedFile);
                     } else {
                         JOptionPane.showMessageDialog(this,
-                                "File not found: " + file.getAbsolutePath(),
+                                "File not found: " + selectedFile.getFileName(),
                                 "File Not Found", JOptionPane.ERROR_MESSAGE);
                     }
-                } catch (java.io.IOException ex) {
-                    JOptionPane.showMessageDialog(this,
-                            "Error opening file: " + ex.getMessage(),
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                    ex.printStackTrace();
                 } catch (java.awt.HeadlessException ex) {
                     JOptionPane.showMessageDialog(this,
                             "Cannot open files in this environment.",
@@ -161,37 +271,28 @@ public class ViewSubmissionDialog extends JDialog {
         });
 
         downloadFileButton.addActionListener(e -> {
-            String selectedFile = attachmentsList.getSelectedValue();
+            Attachment selectedFile = attachmentsList.getSelectedValue();
             if (selectedFile != null) {
                 try {
-                    // Create a File object from the file path
-                    java.io.File sourceFile = new java.io.File(selectedFile);
+                    AttachmentStore store = AttachmentStore.getInstance();
 
-                    if (sourceFile.exists()) {
+                    if (store.contains(selectedFile)) {
                         // Create a file chooser for selecting destination
                         JFileChooser fileChooser = new JFileChooser();
                         fileChooser.setDialogTitle("Save File As");
-                        fileChooser.setSelectedFile(new java.io.File(sourceFile.getName()));
+                        fileChooser.setSelectedFile(new java.io.File(selectedFile.getFileName()));
 
                         int userSelection = fileChooser.showSaveDialog(this);
 
                         if (userSelection == JFileChooser.APPROVE_OPTION) {
                             java.io.File destFile = fileChooser.getSelectedFile();
 
-                            // Copy the file
-                            java.nio.file.Files.copy(
-                                sourceFile.toPath(),
-                                destFile.toPath(),
-                                java.nio.file.StandardCopyOption.REPLACE_EXISTING
-                            );
-
-                            JOptionPane.showMessageDialog(this,
-                                "File downloaded successfully to:\n" + destFile.getAbsolutePath(),
-                                "Download Complete", JOptionPane.INFORMATION_MESSAGE);
+                            // Copy the file out of the attachment store in the background
+                            TransferProgressDialog.download(this, selectedFile, destFile.toPath());
                         }
                     } else {
                         JOptionPane.showMessageDialog(this,
-                            "File not found: " + sourceFile.getAbsolutePath(),
+                            "File not found: " + selectedFile.getFileName(),
                             "File Not Found", JOptionPane.ERROR_MESSAGE);
                     }
                 } catch (Exception ex) {
@@ -216,26 +317,30 @@ public class ViewSubmissionDialog extends JDialog {
         JPanel headerPanel = new JPanel(new GridLayout(0, 2, 10, 5));
         headerPanel.setBorder(BorderFactory.createTitledBorder("Assignment Information"));
 
+        assignmentLabel = new JLabel();
+        courseLabel = new JLabel();
+        dueDateLabel = new JLabel();
+        studentLabel = new JLabel();
+        submittedLabel = new JLabel();
+        statusLabel = new JLabel();
+
         headerPanel.add(new JLabel("Assignment:"));
-        headerPanel.add(new JLabel(assignment.getTitle()));
+        headerPanel.add(assignmentLabel);
 
         headerPanel.add(new JLabel("Course:"));
-        headerPanel.add(new JLabel(assignment.getCourse().getCourseCode() + " - " +
-                                 assignment.getCourse().getCourseName()));
+        headerPanel.add(courseLabel);
 
         headerPanel.add(new JLabel("Due Date:"));
-        headerPanel.add(new JLabel(assignment.getDueDate().format(
-                DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"))));
+        headerPanel.add(dueDateLabel);
 
         headerPanel.add(new JLabel("Student:"));
-        headerPanel.add(new JLabel(student.getName() + " (" + student.getStudentId() + ")"));
+        headerPanel.add(studentLabel);
 
         headerPanel.add(new JLabel("Submitted:"));
-        headerPanel.add(new JLabel(submission.getSubmittedAt().format(
-                DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"))));
+        headerPanel.add(submittedLabel);
 
         headerPanel.add(new JLabel("Status:"));
-        headerPanel.add(new JLabel(submission.getStatus().toString()));
+        headerPanel.add(statusLabel);
 
         // Content panel
         JPanel contentPanel = new JPanel(new BorderLayout(10, 10));
@@ -243,7 +348,10 @@ public class ViewSubmissionDialog extends JDialog {
 
         // Attachments panel
         JPanel attachmentsPanel = new JPanel(new BorderLayout(5, 5));
-        attachmentsPanel.add(new JScrollPane(attachmentsList), BorderLayout.CENTER);
+        JSplitPane filesAndPreview = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+                new JScrollPane(attachmentsList), previewPanel);
+        filesAndPreview.setDividerLocation(220);
+        attachmentsPanel.add(filesAndPreview, BorderLayout.CENTER);
 
         JPanel attachmentButtonsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         attachmentButtonsPanel.add(viewFileButton);
@@ -255,7 +363,7 @@ public class ViewSubmissionDialog extends JDialog {
         gradingPanel.setBorder(BorderFactory.createTitledBorder("Grading"));
 
         JPanel marksPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        marksPanel.add(new JLabel("Marks (out of " + assignment.getMaxMarks() + "):"));
+        marksPanel.add(marksLabel);
         marksPanel.add(marksField);
 
         gradingPanel.add(marksPanel, BorderLayout.NORTH);
@@ -263,14 +371,19 @@ public class ViewSubmissionDialog extends JDialog {
 
         // Bottom button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(tasks.getProgressBar());
+        buttonPanel.add(previousButton);
+        buttonPanel.add(nextButton);
         buttonPanel.add(gradeButton);
-        buttonPanel.add(new JButton("Close"));
+        buttonPanel.add(closeButton);
 
-        // Combine panels
-        JPanel centerPanel = new JPanel(new GridLayout(3, 1, 10, 10));
-        centerPanel.add(contentPanel);
-        centerPanel.add(attachmentsPanel);
-        centerPanel.add(gradingPanel);
+        // Combine panels; the files and their preview get the most room
+        JPanel centerPanel = new JPanel(new BorderLayout(10, 10));
+        JPanel textPanels = new JPanel(new GridLayout(2, 1, 10, 10));
+        textPanels.add(contentPanel);
+        textPanels.add(gradingPanel);
+        centerPanel.add(attachmentsPanel, BorderLayout.CENTER);
+        centerPanel.add(textPanels, BorderLayout.EAST);
 
         mainPanel.add(headerPanel, BorderLayout.NORTH);
         mainPanel.add(centerPanel, BorderLayout.CENTER);
@@ -279,6 +392,29 @@ public class ViewSubmissionDialog extends JDialog {
         setContentPane(mainPanel);
     }
 
+    /**
+     * Tell the teacher someone else graded this submission first, then load the latest grade
+     */
+    private void showGradingConflict() {
+        Teacher otherGrader = submission.getGradedBy();
+        JOptionPane.showMessageDialog(this,
+                "This submission was graded by " +
+                        (otherGrader != null ? otherGrader.getName() : "another teacher") +
+                        " while you had it open.\n" +
+                        "Current marks: " + (submission.getMarks() != null ? submission.getMarks() : "Not graded") +
+                        "\n\nThe latest grade has been loaded. Review it and submit again if needed.",
+                "Grading Conflict", JOptionPane.WARNING_MESSAGE);
+        reloadGrade();
+    }
+
+    private void reloadGrade() {
+        // Read the version first so a grade landing mid-reload is caught on the next submit
+        expectedVersion = submission.getVersion();
+        marksField.setText(submission.getMarks() != null ? submission.getMarks().toString() : "");
+        feedbackArea.setText(submission.getFeedback() != null ? submission.getFeedback() : "");
+        statusLabel.setText(submission.getStatus().toString());
+    }
+
     public boolean isSuccess() {
         return success;
     }